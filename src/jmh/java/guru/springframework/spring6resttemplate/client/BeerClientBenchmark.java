@@ -0,0 +1,89 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of {@link BeerClientImpl} operations against the in-process stub server, through a
+ * pooled Apache HttpClient as configured by {@code RestTemplateBuilderConfig}. Sample time mode
+ * reports latency percentiles next to throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class BeerClientBenchmark {
+
+    StubBeerServer server;
+
+    CloseableHttpClient httpClient;
+
+    BeerClientImpl beerClient;
+
+    List<UUID> beerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerIds = server.addBeers(500);
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(16)
+                        .setMaxConnPerRoute(16)
+                        .build())
+                .build();
+
+        beerClient = new BeerClientImpl(server.restTemplateBuilder()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    @Benchmark
+    public BeerDTO getBeerById() {
+        return beerClient.getBeerById(beerIds.get(ThreadLocalRandom.current().nextInt(beerIds.size())));
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listBeers() {
+        return beerClient.listBeers(null, null, null, 1, 50);
+    }
+
+    @Benchmark
+    public BeerPageSummary listBeersStreaming(Blackhole blackhole) {
+        return beerClient.listBeers(BeerFilter.all(), 1, 50, blackhole::consume);
+    }
+}
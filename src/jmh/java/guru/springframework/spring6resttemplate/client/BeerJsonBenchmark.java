@@ -0,0 +1,212 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON mapping of {@link BeerDTO} and {@link BeerDTOPageImpl} on its own, and the streaming page
+ * reader against the databind path. The {@code firstElement} pair shows time to first element:
+ * databind has to bind the whole page first, the streaming reader stops after one element. With
+ * {@code -prof gc}, {@code gc.alloc.rate.norm} is the total allocated per operation, not what is
+ * live at once: both full-page reads bind every element, so it grows with {@code pageSize} for both.
+ * What the streaming reader saves is retained heap, reported by the {@code retained} pair as the heap in use
+ * after a full collection halfway through the page. The
+ * {@code Reflective} variants bind through Jackson's bean deserializer instead of
+ * {@code BeerDTODeserializer}; compare their {@code gc.alloc.rate.norm} with {@code readBeer} and
+ * {@code readPage} for the per-element allocation the hand-written deserializer saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerJsonBenchmark {
+
+    private static final RuntimeException STOP = new RuntimeException("stop", null, false, false);
+
+    @Param({"25", "1000"})
+    int pageSize;
+
+    ObjectMapper objectMapper;
+
+    ObjectMapper reflectiveMapper;
+
+    BeerPageStreamReader streamReader;
+
+    BeerDTO beer;
+
+    byte[] beerJson;
+
+    BeerDTOPageImpl page;
+
+    byte[] pageJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = StubBeerServer.objectMapper();
+        reflectiveMapper = objectMapper.copy()
+                .addMixIn(BeerDTO.class, ReflectiveDeserialization.class)
+                .addMixIn(BeerDTOPageImpl.class, ReflectiveDeserialization.class);
+        streamReader = new BeerPageStreamReader(objectMapper);
+
+        List<BeerDTO> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(beer(i));
+        }
+
+        beer = content.get(0);
+        beerJson = objectMapper.writeValueAsBytes(beer);
+        page = new BeerDTOPageImpl(content, 0, pageSize, pageSize * 10L);
+        pageJson = objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] writeBeer() throws IOException {
+        return objectMapper.writeValueAsBytes(beer);
+    }
+
+    @Benchmark
+    public BeerDTO readBeer() throws IOException {
+        return objectMapper.readValue(beerJson, BeerDTO.class);
+    }
+
+    @Benchmark
+    public BeerDTO readBeerReflective() throws IOException {
+        return reflectiveMapper.readValue(beerJson, BeerDTO.class);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public BeerDTOPageImpl readPage() throws IOException {
+        return objectMapper.readValue(pageJson, BeerDTOPageImpl.class);
+    }
+
+    @Benchmark
+    public BeerDTOPageImpl readPageReflective() throws IOException {
+        return reflectiveMapper.readValue(pageJson, BeerDTOPageImpl.class);
+    }
+
+    @Benchmark
+    public BeerPageSummary readPageStreaming(Blackhole blackhole) throws IOException {
+        return streamReader.read(new ByteArrayInputStream(pageJson), blackhole::consume);
+    }
+
+    @Benchmark
+    public BeerDTO firstElement() throws IOException {
+        return objectMapper.readValue(pageJson, BeerDTOPageImpl.class).getContent().get(0);
+    }
+
+    @Benchmark
+    public void firstElementStreaming(Blackhole blackhole) throws IOException {
+        try {
+            streamReader.read(new ByteArrayInputStream(pageJson), beer -> {
+                blackhole.consume(beer);
+                throw STOP;
+            });
+        } catch (RuntimeException e) {
+            if (e != STOP) {
+                throw e;
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public BeerDTOPageImpl retainedPage(RetainedHeap heap) throws IOException {
+        BeerDTOPageImpl read = objectMapper.readValue(pageJson, BeerDTOPageImpl.class);
+        heap.sample();
+        return read;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public BeerPageSummary retainedPageStreaming(RetainedHeap heap, Blackhole blackhole) throws IOException {
+        int[] seen = new int[1];
+        return streamReader.read(new ByteArrayInputStream(pageJson), beer -> {
+            blackhole.consume(beer);
+            if (++seen[0] == pageSize / 2) {
+                heap.sample();
+            }
+        });
+    }
+
+    private static BeerDTO beer(int i) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName("Beer " + i)
+                .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                .upc(String.valueOf(100000 + i))
+                .quantityOnHand(i)
+                .price(new BigDecimal("12.99"))
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Heap in use after a full collection, taken once per single-shot invocation while the page
+     * is still reachable from the benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeap {
+
+        private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+
+        void sample() {
+            System.gc();
+            retainedBytes = MEMORY.getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    @JsonDeserialize(using = JsonDeserializer.None.class)
+    private interface ReflectiveDeserialization {
+    }
+}
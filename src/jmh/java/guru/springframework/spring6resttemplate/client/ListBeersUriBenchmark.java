@@ -0,0 +1,75 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request URI building without any I/O. The {@code builder} variants are what {@code BeerClientImpl}
+ * used to do: build a query string with {@link UriComponentsBuilder} and let the root URL handler of
+ * the {@code RestTemplate} parse and expand it again. The {@code precompiled} variants use
+ * {@link BeerUriTemplates}. Run with {@code -prof gc} to compare allocations as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBeersUriBenchmark {
+
+    private static final UUID BEER_ID = UUID.randomUUID();
+
+    DefaultUriBuilderFactory uriTemplateHandler = new DefaultUriBuilderFactory("http://localhost:8080");
+
+    BeerUriTemplates uriTemplates = new BeerUriTemplates(uriTemplateHandler);
+
+    @Benchmark
+    public URI noParamsBuilder() {
+        return uriTemplateHandler.expand(UriComponentsBuilder.fromUriString(BeerClientImpl.GET_BEER_PATH).toUriString());
+    }
+
+    @Benchmark
+    public URI noParamsPrecompiled() {
+        return uriTemplates.listBeers(null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public URI allParamsBuilder() {
+        return uriTemplateHandler.expand(UriComponentsBuilder.fromUriString(BeerClientImpl.GET_BEER_PATH)
+                .queryParam("beerName", "Mango Bobs")
+                .queryParam("beerStyle", BeerStyle.PALE_ALE)
+                .queryParam("showInventory", true)
+                .queryParam("pageNumber", 2)
+                .queryParam("pageSize", 50)
+                .toUriString());
+    }
+
+    @Benchmark
+    public URI allParamsPrecompiled() {
+        return uriTemplates.listBeers("Mango Bobs", BeerStyle.PALE_ALE, true, null, 2, 50);
+    }
+
+    @Benchmark
+    public URI beerByIdTemplate() {
+        return uriTemplateHandler.expand(BeerClientImpl.GET_BEER_BY_ID_PATH, BEER_ID);
+    }
+
+    @Benchmark
+    public URI beerByIdPrecompiled() {
+        return uriTemplates.beerById(BEER_ID);
+    }
+}
@@ -0,0 +1,96 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decode cost of a beer page in each wire format the client can negotiate. The bytes the page
+ * takes on the wire are reported as the {@code wireBytes} counter; {@code json-gzip} includes
+ * inflating the payload, as the client does while reading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    String format;
+
+    @Param({"25", "1000"})
+    int pageSize;
+
+    ObjectMapper objectMapper;
+
+    byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "smile" -> StubBeerServer.smileMapper();
+            case "cbor" -> StubBeerServer.cborMapper();
+            default -> StubBeerServer.objectMapper();
+        };
+
+        ConcurrentSkipListMap<UUID, BeerDTO> beers = new ConcurrentSkipListMap<>();
+        StubBeerServer.addBeers(beers, pageSize);
+        payload = objectMapper.writeValueAsBytes(new BeerDTOPageImpl<>(List.copyOf(beers.values()), 0, pageSize, pageSize * 10L));
+
+        if (format.equals("json-gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(payload);
+            }
+            payload = compressed.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public BeerDTOPageImpl<?> readPage(PayloadSize payloadSize) throws IOException {
+        InputStream in = new ByteArrayInputStream(payload);
+        if (format.equals("json-gzip")) {
+            in = new GZIPInputStream(in, 8192);
+        }
+        return objectMapper.readValue(in, BeerDTOPageImpl.class);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public int wireBytes;
+
+        @Setup(Level.Iteration)
+        public void setUp(WireFormatBenchmark benchmark) {
+            wireBytes = benchmark.payload.length;
+        }
+    }
+}
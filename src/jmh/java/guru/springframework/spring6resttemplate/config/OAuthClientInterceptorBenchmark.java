@@ -0,0 +1,71 @@
+package guru.springframework.spring6resttemplate.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link OAuthClientInterceptor} with a warm token cache. The downstream
+ * execution is a no-op, so the numbers are the interceptor alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class OAuthClientInterceptorBenchmark {
+
+    OAuthClientInterceptor interceptor;
+
+    ClientHttpResponse response = new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+
+    ClientHttpRequestExecution execution = (request, body) -> response;
+
+    byte[] body = new byte[0];
+
+    @Setup
+    public void setUp() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("springauth")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("benchmark")
+                .tokenUri("http://localhost/oauth2/token")
+                .build();
+
+        OAuth2AccessToken token = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "benchmark",
+                Instant.now(), Instant.now().plus(1, ChronoUnit.DAYS));
+
+        interceptor = new OAuthClientInterceptor(
+                request -> new OAuth2AuthorizedClient(registration, "benchmark", token),
+                new InMemoryClientRegistrationRepository(registration));
+    }
+
+    @Benchmark
+    public ClientHttpResponse intercept() throws IOException {
+        return interceptor.intercept(new MockClientHttpRequest(), body, execution);
+    }
+}
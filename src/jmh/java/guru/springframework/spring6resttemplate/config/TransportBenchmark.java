@@ -0,0 +1,127 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.H2cBeerServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent {@code getBeerById} calls through the two transports of {@link RestTemplateBuilderConfig},
+ * against an embedded Tomcat that speaks both HTTP/1.1 and h2c: the pooled Apache HttpClient with
+ * one connection per request in flight, and the JDK HttpClient multiplexing over HTTP/2. The
+ * connections each transport opens are reported as the {@code connectionsOpened} counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class TransportBenchmark {
+
+    @Param({"apache", "jdk"})
+    String transport;
+
+    H2cBeerServer server;
+
+    CloseableHttpClient pooledHttpClient;
+
+    HttpClient jdkHttpClient;
+
+    BeerClientImpl beerClient;
+
+    List<UUID> beerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = H2cBeerServer.start();
+        beerIds = server.addBeers(500);
+
+        ClientHttpRequestFactory requestFactory;
+        if (transport.equals("jdk")) {
+            jdkHttpClient = RestTemplateBuilderConfig.createJdkHttpClient();
+            requestFactory = RestTemplateBuilderConfig.createJdkRequestFactory(jdkHttpClient, Duration.ofSeconds(10),
+                    new RestTemplateBuilderConfig().maxStreamsPerHost);
+        } else {
+            RestTemplateBuilderConfig config = new RestTemplateBuilderConfig();
+            config.maxTotalConnections = 100;
+            config.maxConnectionsPerRoute = 50;
+            config.keepAlive = Duration.ofSeconds(30);
+            pooledHttpClient = config.createPooledHttpClient(config.poolingConnectionManager());
+            requestFactory = new HttpComponentsClientHttpRequestFactory(pooledHttpClient);
+        }
+
+        beerClient = new BeerClientImpl(server.restTemplateBuilder().requestFactory(() -> requestFactory));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (pooledHttpClient != null) {
+            pooledHttpClient.close();
+        }
+        if (jdkHttpClient != null) {
+            jdkHttpClient.close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public BeerDTO getBeerById(Connections connections) {
+        return beerClient.getBeerById(beerIds.get(ThreadLocalRandom.current().nextInt(beerIds.size())));
+    }
+
+    /**
+     * Connections accepted by the server during the iteration. Counters are summed over the
+     * benchmark threads, so only the first thread reports.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Connections {
+
+        public int connectionsOpened;
+
+        private boolean reporting;
+        private int atIterationStart;
+
+        @Setup(Level.Iteration)
+        public void setUp(TransportBenchmark benchmark, ThreadParams threadParams) {
+            reporting = threadParams.getThreadIndex() == 0;
+            atIterationStart = benchmark.server.getConnectionCount();
+            connectionsOpened = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(TransportBenchmark benchmark) {
+            if (reporting) {
+                connectionsOpened = benchmark.server.getConnectionCount() - atIterationStart;
+            }
+        }
+    }
+}
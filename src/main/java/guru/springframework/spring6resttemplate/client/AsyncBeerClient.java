@@ -0,0 +1,28 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.data.domain.Page;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non blocking counterpart of {@link BeerClient}. Cancelling a returned future, or completing it
+ * through {@code orTimeout}, aborts the HTTP exchange that backs it.
+ */
+public interface AsyncBeerClient {
+
+    CompletableFuture<Page<BeerDTO>> listBeers();
+
+    CompletableFuture<Page<BeerDTO>> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
+                                               Integer pageNumber, Integer pageSize);
+
+    CompletableFuture<BeerDTO> getBeerById(UUID beerId);
+
+    CompletableFuture<BeerDTO> createBeer(BeerDTO beerDTO);
+
+    CompletableFuture<BeerDTO> updateBeer(BeerDTO beerDTO);
+
+    CompletableFuture<Void> deleteBeer(UUID beerId);
+}
@@ -0,0 +1,115 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each call of the blocking {@link BeerClient} on its own thread, by default a virtual one.
+ * A semaphore bounds the number of exchanges in flight; calls over the limit wait for a permit on
+ * their own thread, so callers are never blocked. Interrupting a virtual thread blocked on socket
+ * I/O closes the socket, which is how cancellation and deadlines abort the exchange.
+ */
+@Service
+public class AsyncBeerClientImpl implements AsyncBeerClient, AutoCloseable {
+
+    private final BeerClient beerClient;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final Duration deadline;
+
+    @Autowired
+    public AsyncBeerClientImpl(BeerClient beerClient,
+                               @Value("${rest.template.async.max-in-flight:256}") int maxInFlight,
+                               @Value("${rest.template.async.deadline:30s}") Duration deadline) {
+        this(beerClient, Executors.newVirtualThreadPerTaskExecutor(), maxInFlight, deadline);
+    }
+
+    public AsyncBeerClientImpl(BeerClient beerClient, ExecutorService executor, int maxInFlight, Duration deadline) {
+        this.beerClient = beerClient;
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.deadline = deadline;
+    }
+
+    @Override
+    public CompletableFuture<Page<BeerDTO>> listBeers() {
+        return submit(beerClient::listBeers);
+    }
+
+    @Override
+    public CompletableFuture<Page<BeerDTO>> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
+                                                      Integer pageNumber, Integer pageSize) {
+        return submit(() -> beerClient.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<BeerDTO> getBeerById(UUID beerId) {
+        return submit(() -> beerClient.getBeerById(beerId));
+    }
+
+    @Override
+    public CompletableFuture<BeerDTO> createBeer(BeerDTO beerDTO) {
+        return submit(() -> beerClient.createBeer(beerDTO));
+    }
+
+    @Override
+    public CompletableFuture<BeerDTO> updateBeer(BeerDTO beerDTO) {
+        return submit(() -> beerClient.updateBeer(beerDTO));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteBeer(UUID beerId) {
+        return submit(() -> {
+            beerClient.deleteBeer(beerId);
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        Future<?> task = executor.submit(() -> {
+            try {
+                inFlight.acquire();
+                try {
+                    result.complete(call.call());
+                } finally {
+                    inFlight.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.cancel(false);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+
+        // cancellation, a timeout or any other early completion interrupts the exchange
+        result.whenComplete((value, failure) -> {
+            if (failure != null) {
+                task.cancel(true);
+            }
+        });
+
+        return result.orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
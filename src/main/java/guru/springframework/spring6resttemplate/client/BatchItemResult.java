@@ -0,0 +1,28 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a batch write. {@code beer} is only set when the batch reads written
+ * beers back, {@code version} when the server reported it.
+ */
+public record BatchItemResult(int index, UUID beerId, Integer version, BeerDTO beer, Exception failure) {
+
+    static BatchItemResult success(int index, BeerDTO beer) {
+        return new BatchItemResult(index, beer.getId(), beer.getVersion(), beer, null);
+    }
+
+    static BatchItemResult success(int index, UUID beerId, Integer version) {
+        return new BatchItemResult(index, beerId, version, null, null);
+    }
+
+    static BatchItemResult failure(int index, UUID beerId, Exception failure) {
+        return new BatchItemResult(index, beerId, null, null, failure);
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
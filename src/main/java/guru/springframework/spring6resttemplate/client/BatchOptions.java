@@ -0,0 +1,46 @@
+package guru.springframework.spring6resttemplate.client;
+
+/**
+ * Options of the batch writes on {@link BeerClient}.
+ *
+ * @param concurrency      maximum number of writes in flight
+ * @param readBack         whether to return the written beers, or only their ids and versions;
+ *                         without read back every write is a single request
+ * @param orderedPerBeer   whether writes to the same beer id are applied one after another in
+ *                         input order; writes to different beers always run concurrently
+ * @param progressListener notified after every completed item, from the worker threads
+ */
+public record BatchOptions(int concurrency, boolean readBack, boolean orderedPerBeer,
+                           BatchProgressListener progressListener) {
+
+    public static final int DEFAULT_CONCURRENCY = 16;
+
+    private static final BatchOptions DEFAULTS = new BatchOptions(DEFAULT_CONCURRENCY, false, true, progress -> {
+    });
+
+    public BatchOptions {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+    }
+
+    public static BatchOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public BatchOptions withConcurrency(int concurrency) {
+        return new BatchOptions(concurrency, readBack, orderedPerBeer, progressListener);
+    }
+
+    public BatchOptions withReadBack(boolean readBack) {
+        return new BatchOptions(concurrency, readBack, orderedPerBeer, progressListener);
+    }
+
+    public BatchOptions withOrderedPerBeer(boolean orderedPerBeer) {
+        return new BatchOptions(concurrency, readBack, orderedPerBeer, progressListener);
+    }
+
+    public BatchOptions withProgressListener(BatchProgressListener progressListener) {
+        return new BatchOptions(concurrency, readBack, orderedPerBeer, progressListener);
+    }
+}
@@ -0,0 +1,10 @@
+package guru.springframework.spring6resttemplate.client;
+
+@FunctionalInterface
+public interface BatchProgressListener {
+
+    void onProgress(BatchProgress progress);
+
+    record BatchProgress(int completed, int failed, int total) {
+    }
+}
@@ -0,0 +1,19 @@
+package guru.springframework.spring6resttemplate.client;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch write, with one item per input element in input order.
+ */
+public record BatchResult(List<BatchItemResult> items) {
+
+    public List<BatchItemResult> failures() {
+        return items.stream()
+                .filter(item -> !item.isSuccess())
+                .toList();
+    }
+
+    public boolean hasFailures() {
+        return items.stream().anyMatch(item -> !item.isSuccess());
+    }
+}
@@ -0,0 +1,93 @@
+package guru.springframework.spring6resttemplate.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs the items of a batch write on virtual threads. Permits are taken in input order before an
+ * item is started, so at most {@code concurrency} items are in flight and a large batch does not
+ * create all of its threads at once. With {@link BatchOptions#orderedPerBeer()} an item waits for
+ * the previous item of the same beer; that item always holds a permit already, so the wait
+ * cannot starve.
+ */
+final class BeerBatchExecutor {
+
+    @FunctionalInterface
+    interface ItemWrite<T> {
+
+        BatchItemResult write(int index, T item);
+    }
+
+    private BeerBatchExecutor() {
+    }
+
+    static <T> BatchResult execute(List<T> items, BatchOptions options, Function<T, UUID> beerIdOf,
+                                   ItemWrite<T> write) {
+        int total = items.size();
+        BatchItemResult[] results = new BatchItemResult[total];
+        Semaphore permits = new Semaphore(options.concurrency());
+        ConcurrentMap<UUID, CompletableFuture<Void>> lastWriteByBeer = new ConcurrentHashMap<>();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < total; i++) {
+                int index = i;
+                T item = items.get(index);
+                UUID beerId = beerIdOf.apply(item);
+
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    for (int j = index; j < total; j++) {
+                        results[j] = BatchItemResult.failure(j, beerIdOf.apply(items.get(j)),
+                                new CancellationException("Batch interrupted"));
+                    }
+                    break;
+                }
+
+                CompletableFuture<Void> done = new CompletableFuture<>();
+                CompletableFuture<Void> previous = options.orderedPerBeer() && beerId != null
+                        ? lastWriteByBeer.put(beerId, done)
+                        : null;
+
+                executor.execute(() -> {
+                    BatchItemResult result;
+                    try {
+                        if (previous != null) {
+                            previous.join();
+                        }
+                        result = write.write(index, item);
+                    } catch (RuntimeException e) {
+                        result = BatchItemResult.failure(index, beerId, e);
+                    } finally {
+                        permits.release();
+                        if (beerId != null) {
+                            lastWriteByBeer.remove(beerId, done);
+                        }
+                        done.complete(null);
+                    }
+
+                    results[index] = result;
+                    options.progressListener().onProgress(new BatchProgressListener.BatchProgress(
+                            completed.incrementAndGet(),
+                            result.isSuccess() ? failed.get() : failed.incrementAndGet(),
+                            total));
+                });
+            }
+        }
+
+        return new BatchResult(Arrays.asList(results));
+    }
+}
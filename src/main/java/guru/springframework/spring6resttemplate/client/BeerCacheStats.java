@@ -0,0 +1,8 @@
+package guru.springframework.spring6resttemplate.client;
+
+/**
+ * Counters of {@link CachingBeerClient}. A revalidation is a stale entry the server confirmed
+ * with {@code 304 Not Modified}; a stale entry that came back with a new body counts as a miss.
+ */
+public record BeerCacheStats(long hits, long misses, long revalidations, int size) {
+}
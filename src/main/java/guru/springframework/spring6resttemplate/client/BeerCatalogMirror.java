@@ -0,0 +1,262 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the beer catalog, indexed by id, {@link BeerStyle} and UPC, for services that
+ * would otherwise page through {@code listBeers} on every lookup.
+ * <p>
+ * The first sync and then one every {@code fullSyncInterval} reads the whole catalog and also drops
+ * beers the service no longer lists. The syncs in between only ask for beers updated since the
+ * watermark, the latest {@code updateDate} seen, so clock skew between client and service does not
+ * matter; until a beer has been seen there is no watermark and every sync is a full one. Either
+ * way a beer is only applied when its version or update date moved, so the mirror stays correct
+ * against a service that ignores {@code updatedSince} and returns everything.
+ * <p>
+ * Syncs run one at a time; queries never block and never see a half-applied beer. Closing the
+ * mirror does not wait for a sync in progress, it interrupts it. Returned beers are copies, as
+ * with {@link CachingBeerClient}.
+ */
+@Slf4j
+public class BeerCatalogMirror implements AutoCloseable {
+
+    private final BeerClient beerClient;
+    private final Duration syncInterval;
+    private final Duration fullSyncInterval;
+    private final Map<UUID, BeerDTO> beers = new ConcurrentHashMap<>();
+    private final Map<BeerStyle, Set<UUID>> byStyle = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> byUpc = new ConcurrentHashMap<>();
+
+    private final Object lifecycleLock = new Object();
+
+    private volatile LocalDateTime watermark;
+    private volatile boolean closed;
+    private Instant lastFullSync = Instant.MIN;
+    private Clock clock = Clock.systemUTC();
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> scheduledSync;
+
+    public BeerCatalogMirror(BeerClient beerClient, Duration syncInterval, Duration fullSyncInterval) {
+        this.beerClient = beerClient;
+        this.syncInterval = syncInterval;
+        this.fullSyncInterval = fullSyncInterval;
+    }
+
+    /**
+     * Syncs every {@code syncInterval} in the background, starting right away.
+     */
+    public void start() {
+        // not the monitor of the mirror, which a running sync holds
+        synchronized (lifecycleLock) {
+            if (scheduler == null && !closed) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("beer-mirror-sync").factory());
+                scheduledSync = scheduler.scheduleWithFixedDelay(this::syncQuietly, 0, syncInterval.toMillis(),
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (lifecycleLock) {
+            if (scheduler != null) {
+                scheduledSync.cancel(true);
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+    }
+
+    /**
+     * Runs a full sync when none has run yet or the last one is older than {@code fullSyncInterval},
+     * an incremental sync otherwise.
+     */
+    public synchronized BeerSyncResult sync() {
+        if (watermark == null || !clock.instant().isBefore(lastFullSync.plus(fullSyncInterval))) {
+            return fullSync();
+        }
+
+        int fetched = 0;
+        int applied = 0;
+        LocalDateTime latest = watermark;
+
+        try (Stream<BeerDTO> changed = beerClient.streamBeers(BeerFilter.all().withUpdatedSince(watermark))) {
+            for (BeerDTO beer : (Iterable<BeerDTO>) changed::iterator) {
+                fetched++;
+                applied += apply(beer) ? 1 : 0;
+                latest = later(latest, beer.getUpdateDate());
+            }
+        }
+
+        watermark = latest;
+        return new BeerSyncResult(false, fetched, applied, 0, latest);
+    }
+
+    /**
+     * Reads the whole catalog, and drops local beers that are not part of it anymore.
+     */
+    public synchronized BeerSyncResult fullSync() {
+        Instant started = clock.instant();
+        Set<UUID> seen = new HashSet<>(Math.max(16, beers.size() * 4 / 3));
+        int applied = 0;
+        LocalDateTime latest = watermark;
+
+        try (Stream<BeerDTO> all = beerClient.streamBeers(BeerFilter.all())) {
+            for (BeerDTO beer : (Iterable<BeerDTO>) all::iterator) {
+                seen.add(beer.getId());
+                applied += apply(beer) ? 1 : 0;
+                latest = later(latest, beer.getUpdateDate());
+            }
+        }
+
+        int removed = 0;
+        for (UUID beerId : List.copyOf(beers.keySet())) {
+            if (!seen.contains(beerId)) {
+                remove(beerId);
+                removed++;
+            }
+        }
+
+        // an empty catalog has no update date, and the client clock is no substitute for one
+        watermark = latest;
+        lastFullSync = started;
+        return new BeerSyncResult(true, seen.size(), applied, removed, watermark);
+    }
+
+    public Optional<BeerDTO> get(UUID beerId) {
+        return Optional.ofNullable(beers.get(beerId)).map(beer -> beer.toBuilder().build());
+    }
+
+    public List<BeerDTO> findByStyle(BeerStyle beerStyle) {
+        return find(byStyle.get(beerStyle), beer -> beer.getBeerStyle() == beerStyle);
+    }
+
+    public List<BeerDTO> findByUpc(String upc) {
+        return find(byUpc.get(upc), beer -> upc.equals(beer.getUpc()));
+    }
+
+    public int size() {
+        return beers.size();
+    }
+
+    /**
+     * The latest {@code updateDate} seen, {@code null} until a sync has seen a beer.
+     */
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private List<BeerDTO> find(Set<UUID> ids, Predicate<BeerDTO> stillMatches) {
+        if (ids == null) {
+            return List.of();
+        }
+        // an index entry may briefly outlive a change of the beer, so check the beer itself
+        return ids.stream()
+                .map(beers::get)
+                .filter(Objects::nonNull)
+                .filter(stillMatches)
+                .map(beer -> beer.toBuilder().build())
+                .toList();
+    }
+
+    private boolean apply(BeerDTO beer) {
+        BeerDTO existing = beers.get(beer.getId());
+        if (existing != null && !isNewer(beer, existing)) {
+            return false;
+        }
+
+        // indexes first, so a beer found by id is always found by its style and UPC as well
+        index(byStyle, beer.getBeerStyle(), beer.getId());
+        index(byUpc, beer.getUpc(), beer.getId());
+        beers.put(beer.getId(), beer);
+
+        if (existing != null) {
+            if (existing.getBeerStyle() != beer.getBeerStyle()) {
+                unindex(byStyle, existing.getBeerStyle(), beer.getId());
+            }
+            if (!Objects.equals(existing.getUpc(), beer.getUpc())) {
+                unindex(byUpc, existing.getUpc(), beer.getId());
+            }
+        }
+        return true;
+    }
+
+    private void remove(UUID beerId) {
+        BeerDTO existing = beers.remove(beerId);
+        if (existing != null) {
+            unindex(byStyle, existing.getBeerStyle(), beerId);
+            unindex(byUpc, existing.getUpc(), beerId);
+        }
+    }
+
+    private static boolean isNewer(BeerDTO candidate, BeerDTO existing) {
+        if (candidate.getVersion() != null && existing.getVersion() != null
+                && !candidate.getVersion().equals(existing.getVersion())) {
+            return candidate.getVersion() > existing.getVersion();
+        }
+        if (candidate.getUpdateDate() != null && existing.getUpdateDate() != null) {
+            return candidate.getUpdateDate().isAfter(existing.getUpdateDate());
+        }
+        return !candidate.equals(existing);
+    }
+
+    private static <K> void index(Map<K, Set<UUID>> index, K key, UUID beerId) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(beerId);
+        }
+    }
+
+    private static <K> void unindex(Map<K, Set<UUID>> index, K key, UUID beerId) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, ids) -> {
+                ids.remove(beerId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime current, LocalDateTime candidate) {
+        return candidate != null && (current == null || candidate.isAfter(current)) ? candidate : current;
+    }
+
+    private void syncQuietly() {
+        if (closed) {
+            return;
+        }
+        try {
+            BeerSyncResult result = sync();
+            log.debug("Beer catalog sync: {}", result);
+        } catch (RuntimeException e) {
+            // keep serving the current mirror, the next sync starts from the same watermark
+            if (!closed) {
+                log.warn("Beer catalog sync failed", e);
+            }
+        }
+    }
+}
@@ -3,21 +3,111 @@ package guru.springframework.spring6resttemplate.client;
 import guru.springframework.spring6resttemplate.model.BeerDTO;
 import guru.springframework.spring6resttemplate.model.BeerStyle;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public interface BeerClient {
 
+    int DEFAULT_STREAM_PAGE_SIZE = 25;
+    int DEFAULT_STREAM_PREFETCH_DEPTH = 1;
+
     Page<BeerDTO> listBeers();
 
     Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
                             Integer pageNumber, Integer pageSize);
 
+    /**
+     * Fetches one page and hands each beer to the consumer while the response is being parsed,
+     * without materializing the page.
+     */
+    BeerPageSummary listBeers(BeerFilter filter, Integer pageNumber, Integer pageSize, Consumer<BeerDTO> consumer);
+
+    /**
+     * Streams every beer matching the filter, fetching following pages in the background. The
+     * stream should be closed when it is not consumed to the end.
+     */
+    Stream<BeerDTO> streamBeers(BeerFilter filter);
+
+    Stream<BeerDTO> streamBeers(BeerFilter filter, int pageSize, int prefetchDepth);
+
+    /**
+     * Pages through every beer matching the filter as the subscriber requests them, fetching the
+     * next page only when its demand reaches it. Pages are fetched on the bounded elastic
+     * scheduler.
+     */
+    default Flux<BeerDTO> listBeersFlux(BeerFilter filter) {
+        return listBeersFlux(filter, DEFAULT_STREAM_PAGE_SIZE, 1);
+    }
+
+    /**
+     * As {@link #listBeersFlux(BeerFilter)}, with up to {@code concurrency} pages fetched at once
+     * ahead of the subscriber's demand. Beers are still emitted in page order.
+     */
+    default Flux<BeerDTO> listBeersFlux(BeerFilter filter, int pageSize, int concurrency) {
+        return BeerPageFlux.create(this, filter, pageSize, concurrency, Schedulers.boundedElastic());
+    }
+
     BeerDTO getBeerById(UUID beerId);
 
+    /**
+     * Conditional variant of {@link #getBeerById(UUID)}. When the entity tag still matches, the
+     * response is a {@code 304 Not Modified} without a body.
+     */
+    ResponseEntity<BeerDTO> getBeerByIdIfNoneMatch(UUID beerId, String eTag);
+
+    /**
+     * Looks up many beers at once. Duplicate ids are fetched once and a failing id is reported in
+     * {@link BeerLookupResult#failures()} instead of failing the whole batch.
+     */
+    BeerLookupResult getBeersByIds(Collection<UUID> beerIds);
+
     BeerDTO createBeer(BeerDTO beerDTO);
 
+    /**
+     * Creates the beer without reading it back, in a single request.
+     */
+    UUID createBeerReturningId(BeerDTO beerDTO);
+
     BeerDTO updateBeer(BeerDTO beerDTO);
 
+    /**
+     * Updates the beer without reading it back, in a single request. Returns the new version, or
+     * {@code null} when the server reports none.
+     */
+    Integer updateBeerReturningVersion(BeerDTO beerDTO);
+
     void deleteBeer(UUID beerId);
+
+    /**
+     * Creates the beers with {@link BatchOptions#concurrency()} writes in flight. A failing item is
+     * reported in its {@link BatchItemResult} instead of failing the batch.
+     */
+    default BatchResult createBeers(Collection<BeerDTO> beers, BatchOptions options) {
+        return BeerBatchExecutor.execute(List.copyOf(beers), options, beer -> null, (index, beer) ->
+                options.readBack()
+                        ? BatchItemResult.success(index, createBeer(beer))
+                        : BatchItemResult.success(index, createBeerReturningId(beer), null));
+    }
+
+    default BatchResult updateBeers(Collection<BeerDTO> beers, BatchOptions options) {
+        return BeerBatchExecutor.execute(List.copyOf(beers), options, BeerDTO::getId, (index, beer) ->
+                options.readBack()
+                        ? BatchItemResult.success(index, updateBeer(beer))
+                        : BatchItemResult.success(index, beer.getId(), updateBeerReturningVersion(beer)));
+    }
+
+    default BatchResult deleteBeers(Collection<UUID> beerIds, BatchOptions options) {
+        return BeerBatchExecutor.execute(List.copyOf(beerIds), options, Function.identity(), (index, beerId) -> {
+            deleteBeer(beerId);
+            return BatchItemResult.success(index, beerId, null);
+        });
+    }
 }
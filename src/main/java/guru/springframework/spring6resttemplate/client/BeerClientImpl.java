@@ -1,28 +1,84 @@
 package guru.springframework.spring6resttemplate.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import guru.springframework.spring6resttemplate.model.BeerDTO;
 import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
 import guru.springframework.spring6resttemplate.model.BeerStyle;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Bulk lookups and prefetching page streams run on virtual threads of their own, which are
+ * stopped on {@link #close()}; lookups started afterwards fail.
+ */
 @Service
-@RequiredArgsConstructor
-public class BeerClientImpl implements BeerClient {
+public class BeerClientImpl implements BeerClient, AutoCloseable {
 
-    private final RestTemplateBuilder restTemplateBuilder;
+    private final RestTemplate restTemplate;
+    private final BeerUriTemplates uriTemplates;
+    private final BeerPageStreamReader pageStreamReader;
+    private final int bulkParallelism;
+    private final ExecutorService fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<UUID, CompletableFuture<BeerDTO>> lookupsInFlight = new ConcurrentHashMap<>();
 
     public static final String GET_BEER_PATH = "/api/v1/beer";
     public static final String GET_BEER_BY_ID_PATH = "/api/v1/beer/{beerId}";
 
+    static final String PREFER_HEADER = "Prefer";
+    static final String RETURN_REPRESENTATION = "return=representation";
+    static final String RETURN_MINIMAL = "return=minimal";
+
+    public static final int DEFAULT_BULK_PARALLELISM = 16;
+
+    public BeerClientImpl(RestTemplateBuilder restTemplateBuilder) {
+        this(restTemplateBuilder, DEFAULT_BULK_PARALLELISM);
+    }
+
+    @Autowired
+    public BeerClientImpl(RestTemplateBuilder restTemplateBuilder,
+                          @Value("${rest.template.bulk.parallelism:" + DEFAULT_BULK_PARALLELISM + "}") int bulkParallelism) {
+        this.restTemplate = restTemplateBuilder.build();
+        this.uriTemplates = new BeerUriTemplates(restTemplate.getUriTemplateHandler());
+        this.pageStreamReader = new BeerPageStreamReader(jsonObjectMapper(restTemplate));
+        this.bulkParallelism = bulkParallelism;
+    }
+
     @Override
     public Page<BeerDTO> listBeers() {
         return listBeers(null, null, null, null, null);
@@ -32,50 +88,241 @@ public class BeerClientImpl implements BeerClient {
     public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
                                    Integer pageNumber, Integer pageSize) {
 
-        RestTemplate restTemplate = restTemplateBuilder.build();
+        ResponseEntity<BeerDTOPageImpl> response = restTemplate.getForEntity(
+                uriTemplates.listBeers(beerName, beerStyle, showInventory, null, pageNumber, pageSize),
+                BeerDTOPageImpl.class);
 
-        UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder.fromUriString(GET_BEER_PATH);
+        return response.getBody();
+    }
 
-        if (beerName != null)
-            uriComponentsBuilder.queryParam("beerName", beerName);
-        if (beerStyle != null)
-            uriComponentsBuilder.queryParam("beerStyle", beerStyle);
-        if (showInventory != null)
-            uriComponentsBuilder.queryParam("showInventory", showInventory);
-        if (pageNumber != null)
-            uriComponentsBuilder.queryParam("pageNumber", pageNumber);
-        if (pageSize != null)
-            uriComponentsBuilder.queryParam("pageSize", pageSize);
+    @Override
+    public BeerPageSummary listBeers(BeerFilter filter, Integer pageNumber, Integer pageSize,
+                                     Consumer<BeerDTO> consumer) {
+        return restTemplate.execute(
+                uriTemplates.listBeers(filter, pageNumber, pageSize),
+                HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> pageStreamReader.read(response.getBody(), consumer));
+    }
 
-        ResponseEntity<BeerDTOPageImpl> response =
-                restTemplate.getForEntity(uriComponentsBuilder.toUriString(), BeerDTOPageImpl.class);
+    @Override
+    public Stream<BeerDTO> streamBeers(BeerFilter filter) {
+        return streamBeers(filter, DEFAULT_STREAM_PAGE_SIZE, DEFAULT_STREAM_PREFETCH_DEPTH);
+    }
 
-        return response.getBody();
+    @Override
+    public Stream<BeerDTO> streamBeers(BeerFilter filter, int pageSize, int prefetchDepth) {
+        BeerPageIterator iterator = new BeerPageIterator(pageNumber -> restTemplate.getForObject(
+                uriTemplates.listBeers(filter, pageNumber, pageSize), BeerDTOPageImpl.class), fanOutExecutor, prefetchDepth);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
     }
 
     @Override
     public BeerDTO getBeerById(UUID beerId) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        return restTemplate.getForObject(GET_BEER_BY_ID_PATH, BeerDTO.class, beerId);
+        return restTemplate.getForObject(uriTemplates.beerById(beerId), BeerDTO.class);
+    }
+
+    @Override
+    public ResponseEntity<BeerDTO> getBeerByIdIfNoneMatch(UUID beerId, String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
+        }
+
+        return restTemplate.exchange(uriTemplates.beerById(beerId), HttpMethod.GET, new HttpEntity<>(headers),
+                BeerDTO.class);
+    }
+
+    @Override
+    public BeerLookupResult getBeersByIds(Collection<UUID> beerIds) {
+        Semaphore permits = new Semaphore(bulkParallelism);
+        Map<UUID, CompletableFuture<BeerDTO>> lookups = new LinkedHashMap<>();
+
+        for (UUID beerId : new LinkedHashSet<>(beerIds)) {
+            lookups.put(beerId, sharedLookup(beerId, permits));
+        }
+
+        Map<UUID, BeerDTO> beers = new LinkedHashMap<>();
+        Map<UUID, Exception> failures = new LinkedHashMap<>();
+        Deadline deadline = Deadline.current();
+
+        lookups.forEach((beerId, lookup) -> {
+            try {
+                beers.put(beerId, await(lookup, deadline));
+            } catch (CompletionException e) {
+                failures.put(beerId, e.getCause() instanceof Exception cause ? cause : e);
+            } catch (CancellationException | DeadlineExceededException e) {
+                failures.put(beerId, e);
+            }
+        });
+
+        return new BeerLookupResult(beers, failures);
+    }
+
+    /**
+     * Waits for the lookup, no longer than the deadline allows. A lookup shared with another
+     * caller is left running when this one gives up on it.
+     */
+    private static BeerDTO await(CompletableFuture<BeerDTO> lookup, Deadline deadline) {
+        if (deadline == null) {
+            return lookup.join();
+        }
+        try {
+            return lookup.get(Math.max(0, deadline.remaining().toNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded while waiting for the beer lookup");
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the beer lookup");
+        }
     }
 
+    /**
+     * Joins the lookup another caller already has in flight for the id, or starts a new one
+     * bounded by the given permits. The lookup runs under the caller's {@link Deadline}; a lookup
+     * joined from another caller keeps the deadline of the caller that started it.
+     * <p>
+     * The lookup calls this client's own {@link #getBeerById}, not the outermost decorator: the
+     * decorators handle {@link #getBeersByIds} as one operation, the cache serving the ids it
+     * holds and passing on only the missing ones, the metrics layer counting the batch once, and
+     * the resilience layer recording the outcome of each id on the {@code getBeerById} breaker.
+     * Going through them again per id would meter and take bulkhead slots twice.
+     */
+    private CompletableFuture<BeerDTO> sharedLookup(UUID beerId, Semaphore permits) {
+        CompletableFuture<BeerDTO> lookup = new CompletableFuture<>();
+        CompletableFuture<BeerDTO> inFlight = lookupsInFlight.putIfAbsent(beerId, lookup);
+
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        Runnable task = Deadline.propagate(() -> {
+            try {
+                permits.acquire();
+                try {
+                    lookup.complete(getBeerById(beerId));
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lookup.cancel(false);
+            } catch (Throwable t) {
+                // anything left uncompleted would leave getBeersByIds waiting on it forever
+                lookup.completeExceptionally(t);
+            } finally {
+                lookupsInFlight.remove(beerId, lookup);
+            }
+        });
+
+        try {
+            fanOutExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            lookupsInFlight.remove(beerId, lookup);
+            lookup.completeExceptionally(e);
+        }
+        return lookup;
+    }
+
+    /**
+     * Asks the server to echo the created beer in the response body, and only falls back to
+     * fetching it from the {@code Location} when the server answers without one.
+     */
     @Override
     public BeerDTO createBeer(BeerDTO beerDTO) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        URI uri = restTemplate.postForLocation(GET_BEER_PATH, beerDTO);
+        ResponseEntity<BeerDTO> response = restTemplate.exchange(uriTemplates.beers(), HttpMethod.POST,
+                new HttpEntity<>(beerDTO, preferHeaders(RETURN_REPRESENTATION)), BeerDTO.class);
+
+        if (response.getBody() != null) {
+            return response.getBody();
+        }
+
+        URI uri = response.getHeaders().getLocation();
         return restTemplate.getForObject(uri.getPath(), BeerDTO.class);
     }
 
+    @Override
+    public UUID createBeerReturningId(BeerDTO beerDTO) {
+        URI uri = restTemplate.postForLocation(uriTemplates.beers(),
+                new HttpEntity<>(beerDTO, preferHeaders(RETURN_MINIMAL)));
+
+        String path = uri.getPath();
+        return UUID.fromString(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * Reads the updated beer from the response body when the server returns one, otherwise
+     * fetches it with {@link #getBeerById(UUID)}.
+     */
     @Override
     public BeerDTO updateBeer(BeerDTO beerDTO) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        restTemplate.put(GET_BEER_BY_ID_PATH, beerDTO, beerDTO.getId());
+        ResponseEntity<BeerDTO> response = restTemplate.exchange(uriTemplates.beerById(beerDTO.getId()), HttpMethod.PUT,
+                new HttpEntity<>(beerDTO, preferHeaders(RETURN_REPRESENTATION)), BeerDTO.class);
+
+        if (response.getBody() != null) {
+            return response.getBody();
+        }
+
         return getBeerById(beerDTO.getId());
     }
 
+    @Override
+    public Integer updateBeerReturningVersion(BeerDTO beerDTO) {
+        ResponseEntity<BeerDTO> response = restTemplate.exchange(uriTemplates.beerById(beerDTO.getId()), HttpMethod.PUT,
+                new HttpEntity<>(beerDTO, preferHeaders(RETURN_MINIMAL)), BeerDTO.class);
+
+        if (response.getBody() != null) {
+            return response.getBody().getVersion();
+        }
+
+        return versionFromETag(response.getHeaders().getETag());
+    }
+
+    /**
+     * The beer service uses the version as entity tag, e.g. {@code "3"} or {@code W/"3"}.
+     */
+    static Integer versionFromETag(String eTag) {
+        if (eTag == null) {
+            return null;
+        }
+
+        String value = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        try {
+            return Integer.valueOf(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static HttpHeaders preferHeaders(String preference) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(PREFER_HEADER, preference);
+        return headers;
+    }
+
     @Override
     public void deleteBeer(UUID beerId) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        restTemplate.delete(GET_BEER_BY_ID_PATH, beerId);
+        restTemplate.delete(uriTemplates.beerById(beerId));
+    }
+
+    /**
+     * Interrupts the bulk lookups and page prefetches in flight.
+     */
+    @Override
+    public void close() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    private static ObjectMapper jsonObjectMapper(RestTemplate restTemplate) {
+        return restTemplate.getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseGet(() -> Jackson2ObjectMapperBuilder.json().build());
     }
 }
@@ -0,0 +1,14 @@
+package guru.springframework.spring6resttemplate.client;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown when a call is rejected on the client side without reaching the beer service, because
+ * the circuit breaker is open or too many calls are in flight.
+ */
+public class BeerClientRejectedException extends RestClientException {
+
+    public BeerClientRejectedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,27 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of the beer listing, minus paging. Any component may be {@code null}.
+ * {@code updatedSince} asks for beers updated at or after the given time only; a service that does
+ * not support it returns every beer, so callers must not rely on the filtering.
+ */
+public record BeerFilter(String beerName, BeerStyle beerStyle, Boolean showInventory, LocalDateTime updatedSince) {
+
+    private static final BeerFilter ALL = new BeerFilter(null, null, null);
+
+    public BeerFilter(String beerName, BeerStyle beerStyle, Boolean showInventory) {
+        this(beerName, beerStyle, showInventory, null);
+    }
+
+    public static BeerFilter all() {
+        return ALL;
+    }
+
+    public BeerFilter withUpdatedSince(LocalDateTime updatedSince) {
+        return new BeerFilter(beerName, beerStyle, showInventory, updatedSince);
+    }
+}
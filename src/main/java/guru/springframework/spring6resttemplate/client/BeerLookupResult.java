@@ -0,0 +1,16 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk lookup. Every requested id ends up in exactly one of the two maps.
+ */
+public record BeerLookupResult(Map<UUID, BeerDTO> beers, Map<UUID, Exception> failures) {
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
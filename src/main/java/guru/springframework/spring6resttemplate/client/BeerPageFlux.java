@@ -0,0 +1,52 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pages through the beer listing as a {@link Flux}. The first page tells how many follow; those
+ * are fetched with at most {@code concurrency} requests in flight and emitted in page order. A
+ * following page is only requested once the subscriber has taken the beers of an earlier one, so
+ * no more than {@code concurrency} pages are fetched ahead of its demand. Pages are blocking
+ * calls, made on the given scheduler and streamed into a list while the response is parsed.
+ */
+final class BeerPageFlux {
+
+    private BeerPageFlux() {
+    }
+
+    static Flux<BeerDTO> create(BeerClient beerClient, BeerFilter filter, int pageSize, int concurrency,
+                                Scheduler scheduler) {
+        if (pageSize < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Page size and concurrency must be positive");
+        }
+
+        return fetchPage(beerClient, filter, BeerPageIterator.FIRST_PAGE_NUMBER, pageSize, scheduler)
+                .flatMapMany(first -> {
+                    int following = Math.max(0, first.summary().totalPages() - 1);
+
+                    return Flux.fromIterable(first.beers())
+                            .concatWith(Flux.range(BeerPageIterator.FIRST_PAGE_NUMBER + 1, following)
+                                    .flatMapSequential(pageNumber -> fetchPage(beerClient, filter, pageNumber, pageSize,
+                                            scheduler).flatMapIterable(FetchedPage::beers), concurrency, pageSize));
+                });
+    }
+
+    private static Mono<FetchedPage> fetchPage(BeerClient beerClient, BeerFilter filter, int pageNumber, int pageSize,
+                                               Scheduler scheduler) {
+        return Mono.fromCallable(() -> {
+                    List<BeerDTO> beers = new ArrayList<>(pageSize);
+                    BeerPageSummary summary = beerClient.listBeers(filter, pageNumber, pageSize, beers::add);
+                    return new FetchedPage(summary, beers);
+                })
+                .subscribeOn(scheduler);
+    }
+
+    private record FetchedPage(BeerPageSummary summary, List<BeerDTO> beers) {
+    }
+}
@@ -0,0 +1,112 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.IntFunction;
+
+/**
+ * Walks the beer listing page by page while up to {@code prefetchDepth} following pages are
+ * fetched in the background. At most {@code prefetchDepth + 1} pages are held at any time, and no
+ * page past the last one reported by the server is requested once its total is known.
+ * <p>
+ * Closing the iterator interrupts the fetches still in flight, which aborts their exchanges and
+ * hands the connections back instead of letting them finish pages nobody will read. Pages are
+ * fetched under the {@link Deadline} in effect when the iterator was created, if any.
+ */
+class BeerPageIterator implements Iterator<BeerDTO>, AutoCloseable {
+
+    static final int FIRST_PAGE_NUMBER = 1;
+
+    private final IntFunction<Page<BeerDTO>> pageFetcher;
+    private final Executor executor;
+    private final int prefetchDepth;
+    private final Deadline deadline = Deadline.current();
+    private final Deque<FutureTask<Page<BeerDTO>>> pending = new ArrayDeque<>();
+
+    private Iterator<BeerDTO> current = Collections.emptyIterator();
+    private int nextPageNumber = FIRST_PAGE_NUMBER;
+    private int totalPages = Integer.MAX_VALUE;
+    private boolean exhausted;
+
+    BeerPageIterator(IntFunction<Page<BeerDTO>> pageFetcher, Executor executor, int prefetchDepth) {
+        this.pageFetcher = pageFetcher;
+        this.executor = executor;
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (!advance()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public BeerDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        exhausted = true;
+        pending.forEach(page -> page.cancel(true));
+        pending.clear();
+    }
+
+    private boolean advance() {
+        schedulePages(Math.max(prefetchDepth, 1));
+
+        FutureTask<Page<BeerDTO>> next = pending.poll();
+        if (next == null) {
+            return false;
+        }
+
+        Page<BeerDTO> page;
+        try {
+            page = next.get();
+        } catch (ExecutionException e) {
+            close();
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            next.cancel(true);
+            close();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for page");
+        }
+
+        if (page == null || page.isLast() || !page.hasContent()) {
+            close();
+        } else {
+            totalPages = page.getTotalPages();
+        }
+
+        current = page == null ? Collections.emptyIterator() : page.getContent().iterator();
+        schedulePages(prefetchDepth);
+        return true;
+    }
+
+    private void schedulePages(int limit) {
+        while (!exhausted && pending.size() < limit && nextPageNumber - FIRST_PAGE_NUMBER < totalPages) {
+            int pageNumber = nextPageNumber++;
+            FutureTask<Page<BeerDTO>> fetch = new FutureTask<>(() -> pageFetcher.apply(pageNumber));
+            pending.add(fetch);
+            executor.execute(deadline == null ? fetch : deadline.bind(fetch));
+        }
+    }
+}
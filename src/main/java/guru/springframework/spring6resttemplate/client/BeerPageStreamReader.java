@@ -0,0 +1,81 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads a beer page with Jackson's streaming parser. Each element of {@code content} is bound and
+ * handed to the consumer as soon as it has been read, so only one {@link BeerDTO} is on the heap
+ * at a time no matter how large the page is. {@code null} elements are skipped.
+ */
+public class BeerPageStreamReader {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader beerReader;
+
+    public BeerPageStreamReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.beerReader = objectMapper.readerFor(BeerDTO.class);
+    }
+
+    public BeerPageSummary read(InputStream body, Consumer<BeerDTO> consumer) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a beer page object");
+            }
+
+            int number = 0;
+            int size = 0;
+            long totalElements = 0;
+            int numberOfElements = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+
+                switch (field) {
+                    case "content" -> numberOfElements = readContent(parser, consumer);
+                    case "number" -> number = parser.getIntValue();
+                    case "size" -> size = parser.getIntValue();
+                    case "totalElements" -> totalElements = parser.getLongValue();
+                    default -> parser.skipChildren();
+                }
+            }
+
+            return new BeerPageSummary(number, size, totalElements, numberOfElements);
+        }
+    }
+
+    private int readContent(JsonParser parser, Consumer<BeerDTO> consumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return 0;
+        }
+
+        int count = 0;
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (element == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if (element != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a beer object in page content");
+            }
+            consumer.accept(beerReader.readValue(parser));
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,15 @@
+package guru.springframework.spring6resttemplate.client;
+
+/**
+ * Paging information of a beer page that was streamed to a consumer instead of being materialized.
+ */
+public record BeerPageSummary(int number, int size, long totalElements, int numberOfElements) {
+
+    public int totalPages() {
+        return size == 0 ? 1 : (int) Math.ceil((double) totalElements / (double) size);
+    }
+
+    public boolean isLast() {
+        return number + 1 >= totalPages();
+    }
+}
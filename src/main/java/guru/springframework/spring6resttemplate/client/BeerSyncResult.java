@@ -0,0 +1,11 @@
+package guru.springframework.spring6resttemplate.client;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one {@link BeerCatalogMirror} sync: how many beers the service returned, how many of
+ * them were new or changed, and how many local beers were dropped because the service no longer
+ * lists them, which only a full sync can tell.
+ */
+public record BeerSyncResult(boolean full, int fetched, int applied, int removed, LocalDateTime watermark) {
+}
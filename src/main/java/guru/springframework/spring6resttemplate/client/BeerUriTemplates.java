@@ -0,0 +1,111 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.web.util.UriTemplateHandler;
+import org.springframework.web.util.UriUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The beer endpoints expanded against the root URL once, up front. Request URIs are then built by
+ * appending to the expanded form and parsed once into a {@link URI}, which {@code RestTemplate}
+ * uses as is, instead of building a query string that the {@link UriTemplateHandler} parses,
+ * expands and encodes again on every call. The encoded query parameters of every
+ * {@link BeerStyle} are computed once as well.
+ */
+final class BeerUriTemplates {
+
+    private static final Map<BeerStyle, String> BEER_STYLE_PARAMS = new EnumMap<>(BeerStyle.class);
+
+    static {
+        for (BeerStyle beerStyle : BeerStyle.values()) {
+            BEER_STYLE_PARAMS.put(beerStyle, "beerStyle=" + encodeQueryParam(beerStyle.name()));
+        }
+    }
+
+    private final URI beers;
+    private final String beersPrefix;
+    private final String beerByIdPrefix;
+
+    BeerUriTemplates(UriTemplateHandler uriTemplateHandler) {
+        this.beers = uriTemplateHandler.expand(BeerClientImpl.GET_BEER_PATH);
+        this.beersPrefix = beers.toString();
+        this.beerByIdPrefix = beersPrefix + "/";
+    }
+
+    /**
+     * {@value BeerClientImpl#GET_BEER_PATH} without query, shared by every call.
+     */
+    URI beers() {
+        return beers;
+    }
+
+    URI beerById(UUID beerId) {
+        return URI.create(beerByIdPrefix + beerId);
+    }
+
+    URI listBeers(BeerFilter filter, Integer pageNumber, Integer pageSize) {
+        return listBeers(filter.beerName(), filter.beerStyle(), filter.showInventory(), filter.updatedSince(),
+                pageNumber, pageSize);
+    }
+
+    URI listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, LocalDateTime updatedSince,
+                  Integer pageNumber, Integer pageSize) {
+        if (beerName == null && beerStyle == null && showInventory == null && updatedSince == null
+                && pageNumber == null && pageSize == null) {
+            return beers;
+        }
+
+        StringBuilder uri = new StringBuilder(beersPrefix.length() + 96).append(beersPrefix);
+        char separator = '?';
+
+        if (beerName != null) {
+            uri.append(separator).append("beerName=").append(encodeQueryParam(beerName));
+            separator = '&';
+        }
+        if (beerStyle != null) {
+            uri.append(separator).append(BEER_STYLE_PARAMS.get(beerStyle));
+            separator = '&';
+        }
+        if (showInventory != null) {
+            uri.append(separator).append("showInventory=").append(showInventory.booleanValue());
+            separator = '&';
+        }
+        if (updatedSince != null) {
+            // ISO-8601 only uses characters allowed in a query
+            uri.append(separator).append("updatedSince=").append(updatedSince);
+            separator = '&';
+        }
+        if (pageNumber != null) {
+            uri.append(separator).append("pageNumber=").append(pageNumber.intValue());
+            separator = '&';
+        }
+        if (pageSize != null) {
+            uri.append(separator).append("pageSize=").append(pageSize.intValue());
+        }
+
+        return URI.create(uri.toString());
+    }
+
+    /**
+     * Encodes every character outside the unreserved set, including {@code +}, {@code &} and
+     * {@code =}, which a server decoding the query as a form would otherwise misread. Beer names
+     * are mostly plain words, which are returned as they are.
+     */
+    static String encodeQueryParam(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean unreserved = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.' || c == '_' || c == '~';
+            if (!unreserved) {
+                return UriUtils.encode(value, StandardCharsets.UTF_8);
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,212 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache for {@link #getBeerById(UUID)}. Entries are served as is for the configured
+ * time to live; after that they are revalidated with {@code If-None-Match}, so an unchanged beer
+ * costs a body-less {@code 304}. The entity tag is the one sent by the server, or derived from
+ * {@link BeerDTO#getVersion()} when the server sends none. Writes through this client evict the
+ * affected entry both before and after the write, and the least recently used entry is evicted
+ * once the cache is full.
+ * <p>
+ * Every eviction bumps a generation counter, one per stripe of ids, and a read only caches what it
+ * fetched if the generation of its id is still the one it started with: a read that was sent before
+ * a write through this client and answered after it cannot put the old beer back. Writes made by
+ * other clients are only seen once the entry expires.
+ */
+public class CachingBeerClient extends DelegatingBeerClient {
+
+    private final Duration ttl;
+    private static final int GENERATION_STRIPES = 64;
+
+    private final Map<UUID, CachedBeer> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    private Clock clock = Clock.systemUTC();
+
+    public CachingBeerClient(BeerClient delegate, int maxSize, Duration ttl) {
+        super(delegate);
+        this.ttl = ttl;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedBeer> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    @Override
+    public BeerDTO getBeerById(UUID beerId) {
+        CachedBeer cached = cache.get(beerId);
+        Instant now = clock.instant();
+
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            hits.increment();
+            return cached.beer().toBuilder().build();
+        }
+
+        long generation = generation(beerId);
+        ResponseEntity<BeerDTO> response = delegate.getBeerByIdIfNoneMatch(beerId,
+                cached == null ? null : cached.eTag());
+
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            revalidations.increment();
+            cacheIfCurrent(beerId, new CachedBeer(cached.beer(), cached.eTag(), now.plus(ttl)), generation);
+            return cached.beer().toBuilder().build();
+        }
+
+        misses.increment();
+        BeerDTO beer = response.getBody();
+        if (beer != null) {
+            String eTag = response.getHeaders().getETag();
+            cacheIfCurrent(beerId, new CachedBeer(beer.toBuilder().build(), eTag != null ? eTag : versionTag(beer),
+                    now.plus(ttl)), generation);
+        }
+        return beer;
+    }
+
+    @Override
+    public BeerLookupResult getBeersByIds(Collection<UUID> beerIds) {
+        Map<UUID, BeerDTO> beers = new LinkedHashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        Map<UUID, Long> missingGenerations = new LinkedHashMap<>();
+        Instant now = clock.instant();
+
+        for (UUID beerId : new LinkedHashSet<>(beerIds)) {
+            CachedBeer cached = cache.get(beerId);
+            if (cached != null && now.isBefore(cached.expiresAt())) {
+                hits.increment();
+                beers.put(beerId, cached.beer().toBuilder().build());
+            } else {
+                missing.add(beerId);
+                missingGenerations.put(beerId, generation(beerId));
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return new BeerLookupResult(beers, Map.of());
+        }
+
+        BeerLookupResult fetched = delegate.getBeersByIds(missing);
+        fetched.beers().forEach((beerId, beer) -> {
+            misses.increment();
+            if (beer != null) {
+                cacheIfCurrent(beerId, new CachedBeer(beer.toBuilder().build(), versionTag(beer), now.plus(ttl)),
+                        missingGenerations.get(beerId));
+            }
+        });
+        beers.putAll(fetched.beers());
+
+        return new BeerLookupResult(beers, fetched.failures());
+    }
+
+    @Override
+    public BeerDTO createBeer(BeerDTO beerDTO) {
+        BeerDTO created = delegate.createBeer(beerDTO);
+        if (created != null && created.getId() != null) {
+            invalidate(created.getId());
+        }
+        return created;
+    }
+
+    @Override
+    public BeerDTO updateBeer(BeerDTO beerDTO) {
+        invalidate(beerDTO.getId());
+        try {
+            return delegate.updateBeer(beerDTO);
+        } finally {
+            invalidate(beerDTO.getId());
+        }
+    }
+
+    @Override
+    public Integer updateBeerReturningVersion(BeerDTO beerDTO) {
+        invalidate(beerDTO.getId());
+        try {
+            return delegate.updateBeerReturningVersion(beerDTO);
+        } finally {
+            invalidate(beerDTO.getId());
+        }
+    }
+
+    @Override
+    public void deleteBeer(UUID beerId) {
+        invalidate(beerId);
+        try {
+            delegate.deleteBeer(beerId);
+        } finally {
+            invalidate(beerId);
+        }
+    }
+
+    public void invalidate(UUID beerId) {
+        synchronized (cache) {
+            generations.incrementAndGet(stripe(beerId));
+            cache.remove(beerId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            cache.clear();
+        }
+    }
+
+    public BeerCacheStats getStats() {
+        return new BeerCacheStats(hits.sum(), misses.sum(), revalidations.sum(), cache.size());
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private long generation(UUID beerId) {
+        return generations.get(stripe(beerId));
+    }
+
+    /**
+     * Caches the beer unless its id was evicted since the read started; checked under the lock of
+     * the map, which evictions hold too, so that one cannot slip in between the check and the put.
+     */
+    private void cacheIfCurrent(UUID beerId, CachedBeer cachedBeer, long generation) {
+        synchronized (cache) {
+            if (generations.get(stripe(beerId)) == generation) {
+                cache.put(beerId, cachedBeer);
+            }
+        }
+    }
+
+    private static int stripe(UUID beerId) {
+        return Math.floorMod(beerId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static String versionTag(BeerDTO beer) {
+        return beer.getVersion() == null ? null : "\"" + beer.getVersion() + "\"";
+    }
+
+    private record CachedBeer(BeerDTO beer, String eTag, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,103 @@
+package guru.springframework.spring6resttemplate.client;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * A time budget shared by every request made on the current thread while it is in effect, so that
+ * an operation made of several requests, or retried, finishes within one budget instead of one
+ * per request. Requests made with too little budget left fail with
+ * {@link DeadlineExceededException} before they are sent, and on the pooled transport the read
+ * timeout of each request is capped to the remaining budget.
+ * <pre>
+ * BeerDTO beer = Deadline.after(Duration.ofMillis(300)).call(() -&gt; beerClient.createBeer(newBeer));
+ * </pre>
+ * Deadlines nest: the earlier one wins. Work handed to other threads does not see the deadline
+ * unless it is wrapped with {@link #propagate(Runnable)}.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final Duration readTimeout;
+
+    private Deadline(long deadlineNanos, Duration readTimeout) {
+        this.deadlineNanos = deadlineNanos;
+        this.readTimeout = readTimeout;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return after(timeout, null);
+    }
+
+    /**
+     * A deadline that also sets the read timeout of each request made under it.
+     */
+    public static Deadline after(Duration timeout, Duration readTimeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos(), readTimeout);
+    }
+
+    /**
+     * The deadline in effect on this thread, or {@code null}.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps the task so that it runs under the deadline in effect now, if any.
+     */
+    public static Runnable propagate(Runnable task) {
+        Deadline deadline = current();
+        return deadline == null ? task : deadline.bind(task);
+    }
+
+    /**
+     * Wraps the task so that it runs under this deadline, on whichever thread runs it.
+     */
+    public Runnable bind(Runnable task) {
+        return () -> call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public <T> T call(Supplier<T> action) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(previous == null ? this : earlierOf(previous));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * The read timeout requests under this deadline should use, {@code null} for the transport's own.
+     */
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    private Deadline earlierOf(Deadline other) {
+        if (other.deadlineNanos - deadlineNanos <= 0) {
+            // keep the outer budget, but let the inner operation pick its own read timeout
+            return readTimeout == null || readTimeout.equals(other.readTimeout)
+                    ? other : new Deadline(other.deadlineNanos, readTimeout);
+        }
+        return readTimeout != null ? this : new Deadline(deadlineNanos, other.readTimeout);
+    }
+}
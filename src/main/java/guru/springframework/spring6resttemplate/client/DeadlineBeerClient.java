@@ -0,0 +1,92 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs every {@link BeerClient} operation under a {@link Deadline} of its configured total
+ * timeout, so that {@code createBeer}, a POST and a GET, or a read that is retried still finishes
+ * within one budget. A deadline set by the caller applies too, whichever ends first. Streams are
+ * not covered, as they are lazy.
+ */
+public class DeadlineBeerClient extends DelegatingBeerClient {
+
+    private final TimeoutProperties properties;
+
+    public DeadlineBeerClient(BeerClient delegate, TimeoutProperties properties) {
+        super(delegate);
+        this.properties = properties;
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers() {
+        return call("listBeers", delegate::listBeers);
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
+                                   Integer pageNumber, Integer pageSize) {
+        return call("listBeers",
+                () -> delegate.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize));
+    }
+
+    @Override
+    public BeerPageSummary listBeers(BeerFilter filter, Integer pageNumber, Integer pageSize,
+                                     Consumer<BeerDTO> consumer) {
+        return call("listBeersStreaming", () -> delegate.listBeers(filter, pageNumber, pageSize, consumer));
+    }
+
+    @Override
+    public BeerDTO getBeerById(UUID beerId) {
+        return call("getBeerById", () -> delegate.getBeerById(beerId));
+    }
+
+    @Override
+    public ResponseEntity<BeerDTO> getBeerByIdIfNoneMatch(UUID beerId, String eTag) {
+        return call("getBeerById", () -> delegate.getBeerByIdIfNoneMatch(beerId, eTag));
+    }
+
+    @Override
+    public BeerLookupResult getBeersByIds(Collection<UUID> beerIds) {
+        return call("getBeersByIds", () -> delegate.getBeersByIds(beerIds));
+    }
+
+    @Override
+    public BeerDTO createBeer(BeerDTO beerDTO) {
+        return call("createBeer", () -> delegate.createBeer(beerDTO));
+    }
+
+    @Override
+    public UUID createBeerReturningId(BeerDTO beerDTO) {
+        return call("createBeerReturningId", () -> delegate.createBeerReturningId(beerDTO));
+    }
+
+    @Override
+    public BeerDTO updateBeer(BeerDTO beerDTO) {
+        return call("updateBeer", () -> delegate.updateBeer(beerDTO));
+    }
+
+    @Override
+    public Integer updateBeerReturningVersion(BeerDTO beerDTO) {
+        return call("updateBeerReturningVersion", () -> delegate.updateBeerReturningVersion(beerDTO));
+    }
+
+    @Override
+    public void deleteBeer(UUID beerId) {
+        call("deleteBeer", () -> {
+            delegate.deleteBeer(beerId);
+            return null;
+        });
+    }
+
+    private <T> T call(String operation, Supplier<T> call) {
+        return Deadline.after(properties.totalFor(operation), properties.readFor(operation)).call(call);
+    }
+}
@@ -0,0 +1,14 @@
+package guru.springframework.spring6resttemplate.client;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown instead of sending a request when the {@link Deadline} in effect leaves too little time
+ * for it.
+ */
+public class DeadlineExceededException extends RestClientException {
+
+    public DeadlineExceededException(String msg) {
+        super(msg);
+    }
+}
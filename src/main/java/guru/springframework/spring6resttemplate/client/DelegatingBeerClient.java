@@ -0,0 +1,109 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Base class for {@link BeerClient} decorators, forwarding every operation to the delegate so a
+ * decorator only overrides what it changes. The batch writes and {@code listBeersFlux} are not
+ * forwarded: their default implementations run the single-item writes and page reads of the
+ * outermost decorator.
+ * <p>
+ * Closing a decorator closes the decorators below it and the client at the bottom, so that the
+ * chain is released with the outermost one.
+ */
+public abstract class DelegatingBeerClient implements BeerClient, AutoCloseable {
+
+    protected final BeerClient delegate;
+
+    protected DelegatingBeerClient(BeerClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers() {
+        return delegate.listBeers();
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
+                                   Integer pageNumber, Integer pageSize) {
+        return delegate.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize);
+    }
+
+    @Override
+    public BeerPageSummary listBeers(BeerFilter filter, Integer pageNumber, Integer pageSize,
+                                     Consumer<BeerDTO> consumer) {
+        return delegate.listBeers(filter, pageNumber, pageSize, consumer);
+    }
+
+    @Override
+    public Stream<BeerDTO> streamBeers(BeerFilter filter) {
+        return delegate.streamBeers(filter);
+    }
+
+    @Override
+    public Stream<BeerDTO> streamBeers(BeerFilter filter, int pageSize, int prefetchDepth) {
+        return delegate.streamBeers(filter, pageSize, prefetchDepth);
+    }
+
+    @Override
+    public BeerDTO getBeerById(UUID beerId) {
+        return delegate.getBeerById(beerId);
+    }
+
+    @Override
+    public ResponseEntity<BeerDTO> getBeerByIdIfNoneMatch(UUID beerId, String eTag) {
+        return delegate.getBeerByIdIfNoneMatch(beerId, eTag);
+    }
+
+    @Override
+    public BeerLookupResult getBeersByIds(Collection<UUID> beerIds) {
+        return delegate.getBeersByIds(beerIds);
+    }
+
+    @Override
+    public BeerDTO createBeer(BeerDTO beerDTO) {
+        return delegate.createBeer(beerDTO);
+    }
+
+    @Override
+    public UUID createBeerReturningId(BeerDTO beerDTO) {
+        return delegate.createBeerReturningId(beerDTO);
+    }
+
+    @Override
+    public BeerDTO updateBeer(BeerDTO beerDTO) {
+        return delegate.updateBeer(beerDTO);
+    }
+
+    @Override
+    public Integer updateBeerReturningVersion(BeerDTO beerDTO) {
+        return delegate.updateBeerReturningVersion(beerDTO);
+    }
+
+    @Override
+    public void deleteBeer(UUID beerId) {
+        delegate.deleteBeer(beerId);
+    }
+
+    @Override
+    public void close() {
+        if (delegate instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to close " + delegate, e);
+            }
+        }
+    }
+}
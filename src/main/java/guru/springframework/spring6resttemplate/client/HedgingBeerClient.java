@@ -0,0 +1,208 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.client.resilience.LatencyPercentile;
+import guru.springframework.spring6resttemplate.client.resilience.ResilienceProperties;
+import guru.springframework.spring6resttemplate.client.resilience.RetryBudget;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedges the idempotent reads {@code getBeerById} and {@code listBeers}: when a read has not
+ * completed after the configured percentile of recent response times, the same request is sent
+ * once more and the first successful response wins. The other one is cancelled by interrupting
+ * it, which aborts the exchange where the transport allows it, and its response is discarded
+ * otherwise. A read only fails when both requests fail; failing fast is left to retries.
+ * <p>
+ * Hedges draw on a budget relative to the reads, so a slow service sees a few percent of extra
+ * load at most. Sent and winning hedges, and hedges skipped for lack of budget, are counted as
+ * {@value #HEDGES_METRIC}. A cancelled request is recorded in the percentile with the time it
+ * had run so far, a lower bound of its response time, so that the delay keeps track of a slow
+ * service instead of only seeing the requests that won.
+ * <p>
+ * Hedged reads run on virtual threads of their own, which are stopped on {@link #close()}.
+ */
+public class HedgingBeerClient extends DelegatingBeerClient {
+
+    public static final String HEDGES_METRIC = "beer.client.hedges";
+
+    private final ResilienceProperties.Hedging settings;
+    private final RetryBudget budget;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, LatencyPercentile> latencies = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("beer-hedge-", 0).factory());
+
+    public HedgingBeerClient(BeerClient delegate, ResilienceProperties.Hedging settings, MeterRegistry meterRegistry) {
+        this(delegate, settings, meterRegistry, Clock.systemUTC());
+    }
+
+    HedgingBeerClient(BeerClient delegate, ResilienceProperties.Hedging settings, MeterRegistry meterRegistry,
+                      Clock clock) {
+        super(delegate);
+        this.settings = settings;
+        this.budget = new RetryBudget(settings.getBudget(), clock);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers() {
+        return hedge("listBeers", delegate::listBeers);
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
+                                   Integer pageNumber, Integer pageSize) {
+        return hedge("listBeers",
+                () -> delegate.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize));
+    }
+
+    @Override
+    public BeerDTO getBeerById(UUID beerId) {
+        return hedge("getBeerById", () -> delegate.getBeerById(beerId));
+    }
+
+    @Override
+    public ResponseEntity<BeerDTO> getBeerByIdIfNoneMatch(UUID beerId, String eTag) {
+        return hedge("getBeerById", () -> delegate.getBeerByIdIfNoneMatch(beerId, eTag));
+    }
+
+    /**
+     * The delay after which the operation is currently hedged.
+     */
+    public long getHedgeDelayNanos(String operation) {
+        return hedgeDelayNanos(latency(operation));
+    }
+
+    /**
+     * Interrupts the reads in flight; reads started afterwards fail.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        super.close();
+    }
+
+    private <T> T hedge(String operation, Supplier<T> call) {
+        LatencyPercentile latency = latency(operation);
+        budget.onFirstAttempt();
+
+        HedgedRead<T> read = new HedgedRead<>(call, latency);
+        Future<?> primary = executor.submit(Deadline.propagate(() -> read.attempt(false)));
+        Future<?> hedge = null;
+
+        try {
+            try {
+                return read.result.get(hedgeDelayNanos(latency), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (!budget.tryAcquireRetry()) {
+                    counter(operation, "budget_exhausted").increment();
+                    return read.result.get();
+                }
+
+                // counted before checking, so that a primary failing from here on waits for the hedge
+                read.pending.incrementAndGet();
+                if (read.result.isDone()) {
+                    return read.result.get();
+                }
+                hedge = executor.submit(Deadline.propagate(() -> read.attempt(true)));
+                counter(operation, "sent").increment();
+
+                T value = read.result.get();
+                if (read.hedgeWon) {
+                    counter(operation, "won").increment();
+                }
+                return value;
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for " + operation, new InterruptedIOException());
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private long hedgeDelayNanos(LatencyPercentile latency) {
+        return Math.clamp(latency.getNanos(), settings.getMinDelay().toNanos(), settings.getMaxDelay().toNanos());
+    }
+
+    LatencyPercentile latency(String operation) {
+        return latencies.computeIfAbsent(operation,
+                name -> new LatencyPercentile(settings.getPercentile(), settings.getMaxDelay()));
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder(HEDGES_METRIC)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The primary request and its hedge racing for the same result.
+     */
+    private static class HedgedRead<T> {
+
+        private final Supplier<T> call;
+        private final LatencyPercentile latency;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicBoolean decided = new AtomicBoolean();
+        private volatile boolean hedgeWon;
+
+        HedgedRead(Supplier<T> call, LatencyPercentile latency) {
+            this.call = call;
+            this.latency = latency;
+        }
+
+        void attempt(boolean isHedge) {
+            long start = System.nanoTime();
+            try {
+                T value = call.get();
+                latency.record(System.nanoTime() - start);
+                if (decided.compareAndSet(false, true)) {
+                    hedgeWon = isHedge;
+                    result.complete(value);
+                }
+            } catch (RuntimeException e) {
+                if (decided.get()) {
+                    // cancelled after the other request won, it took at least this long
+                    latency.record(System.nanoTime() - start);
+                    return;
+                }
+                // the other request may still succeed, only the last failure fails the read
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
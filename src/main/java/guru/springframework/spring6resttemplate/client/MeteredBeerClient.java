@@ -0,0 +1,133 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Times every {@link BeerClient} operation as {@value #REQUESTS_METRIC}, tagged with the operation,
+ * the HTTP status and an outcome. Successful calls are tagged {@code 2xx}, since a composite
+ * operation such as {@code createBeer} spans more than one exchange; the individual exchanges are
+ * timed by {@code MetricsClientHttpRequestInterceptor}. Streams are not timed, as they are lazy.
+ */
+public class MeteredBeerClient extends DelegatingBeerClient {
+
+    public static final String REQUESTS_METRIC = "beer.client.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    public MeteredBeerClient(BeerClient delegate, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers() {
+        return record("listBeers", delegate::listBeers);
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
+                                   Integer pageNumber, Integer pageSize) {
+        return record("listBeers",
+                () -> delegate.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize));
+    }
+
+    @Override
+    public BeerPageSummary listBeers(BeerFilter filter, Integer pageNumber, Integer pageSize,
+                                     Consumer<BeerDTO> consumer) {
+        return record("listBeersStreaming", () -> delegate.listBeers(filter, pageNumber, pageSize, consumer));
+    }
+
+    @Override
+    public BeerDTO getBeerById(UUID beerId) {
+        return record("getBeerById", () -> delegate.getBeerById(beerId));
+    }
+
+    @Override
+    public ResponseEntity<BeerDTO> getBeerByIdIfNoneMatch(UUID beerId, String eTag) {
+        return record("getBeerById", () -> delegate.getBeerByIdIfNoneMatch(beerId, eTag));
+    }
+
+    @Override
+    public BeerLookupResult getBeersByIds(Collection<UUID> beerIds) {
+        return record("getBeersByIds", () -> delegate.getBeersByIds(beerIds));
+    }
+
+    @Override
+    public BeerDTO createBeer(BeerDTO beerDTO) {
+        return record("createBeer", () -> delegate.createBeer(beerDTO));
+    }
+
+    @Override
+    public UUID createBeerReturningId(BeerDTO beerDTO) {
+        return record("createBeerReturningId", () -> delegate.createBeerReturningId(beerDTO));
+    }
+
+    @Override
+    public BeerDTO updateBeer(BeerDTO beerDTO) {
+        return record("updateBeer", () -> delegate.updateBeer(beerDTO));
+    }
+
+    @Override
+    public Integer updateBeerReturningVersion(BeerDTO beerDTO) {
+        return record("updateBeerReturningVersion", () -> delegate.updateBeerReturningVersion(beerDTO));
+    }
+
+    @Override
+    public void deleteBeer(UUID beerId) {
+        record("deleteBeer", () -> {
+            delegate.deleteBeer(beerId);
+            return null;
+        });
+    }
+
+    private <T> T record(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        String status = "2xx";
+        String outcome = "SUCCESS";
+
+        try {
+            return call.get();
+        } catch (RestClientResponseException e) {
+            status = String.valueOf(e.getStatusCode().value());
+            outcome = outcome(e.getStatusCode());
+            throw e;
+        } catch (ResourceAccessException e) {
+            status = "IO_ERROR";
+            outcome = "UNKNOWN";
+            throw e;
+        } catch (RuntimeException e) {
+            status = "NONE";
+            outcome = "UNKNOWN";
+            throw e;
+        } finally {
+            Timer.builder(REQUESTS_METRIC)
+                    .tags("operation", operation, "status", status, "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String outcome(HttpStatusCode statusCode) {
+        if (statusCode.is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        if (statusCode.is5xxServerError()) {
+            return "SERVER_ERROR";
+        }
+        return "UNKNOWN";
+    }
+}
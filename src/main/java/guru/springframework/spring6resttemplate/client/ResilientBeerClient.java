@@ -0,0 +1,268 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.client.resilience.Bulkhead;
+import guru.springframework.spring6resttemplate.client.resilience.CircuitBreaker;
+import guru.springframework.spring6resttemplate.client.resilience.ResilienceProperties;
+import guru.springframework.spring6resttemplate.client.resilience.RetryBudget;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Sheds load when the beer service degrades instead of letting callers pile up on it:
+ * <ul>
+ *     <li>a bulkhead caps the calls in flight across all operations and rejects the rest,</li>
+ *     <li>every operation has its own circuit breaker, opened by I/O errors, {@code 5xx} and
+ *     {@code 429} responses,</li>
+ *     <li>idempotent operations are retried with full jitter backoff, within a retry budget
+ *     shared by all operations.</li>
+ * </ul>
+ * Rejected calls fail with {@link BeerClientRejectedException}. Streams are not covered, as they
+ * are lazy; the page requests behind them go to the delegate directly.
+ * <p>
+ * A bulk lookup takes one bulkhead slot and fans out into single lookups below, so it is held
+ * back by the {@code getBeerById} breaker and records the outcome of every id on it: a batch
+ * failing against a service that is down opens the breaker like the single lookups would.
+ */
+public class ResilientBeerClient extends DelegatingBeerClient {
+
+    private static final Set<String> IDEMPOTENT_OPERATIONS = Set.of("listBeers", "getBeerById", "deleteBeer");
+
+    private final ResilienceProperties properties;
+    private final Clock clock;
+    private final Bulkhead bulkhead;
+    private final RetryBudget retryBudget;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public ResilientBeerClient(BeerClient delegate, ResilienceProperties properties) {
+        this(delegate, properties, Clock.systemUTC());
+    }
+
+    ResilientBeerClient(BeerClient delegate, ResilienceProperties properties, Clock clock) {
+        super(delegate);
+        this.properties = properties;
+        this.clock = clock;
+        this.bulkhead = new Bulkhead(properties.getBulkhead());
+        this.retryBudget = new RetryBudget(properties.getRetryBudget(), clock);
+    }
+
+    public CircuitBreaker getCircuitBreaker(String operation) {
+        return circuitBreakers.computeIfAbsent(operation, name ->
+                new CircuitBreaker(name, properties.forOperation(name).getCircuitBreaker(), clock));
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers() {
+        return call("listBeers", delegate::listBeers);
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
+                                   Integer pageNumber, Integer pageSize) {
+        return call("listBeers",
+                () -> delegate.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize));
+    }
+
+    @Override
+    public BeerPageSummary listBeers(BeerFilter filter, Integer pageNumber, Integer pageSize,
+                                     Consumer<BeerDTO> consumer) {
+        // not retried, the consumer may already have seen part of the page
+        return call("listBeersStreaming", () -> delegate.listBeers(filter, pageNumber, pageSize, consumer));
+    }
+
+    @Override
+    public BeerDTO getBeerById(UUID beerId) {
+        return call("getBeerById", () -> delegate.getBeerById(beerId));
+    }
+
+    @Override
+    public ResponseEntity<BeerDTO> getBeerByIdIfNoneMatch(UUID beerId, String eTag) {
+        return call("getBeerById", () -> delegate.getBeerByIdIfNoneMatch(beerId, eTag));
+    }
+
+    @Override
+    public BeerLookupResult getBeersByIds(Collection<UUID> beerIds) {
+        if (!bulkhead.tryAcquire()) {
+            throw new BeerClientRejectedException("Too many concurrent calls, rejected getBeersByIds");
+        }
+
+        try {
+            CircuitBreaker circuitBreaker = getCircuitBreaker("getBeerById");
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new BeerClientRejectedException("Circuit breaker of getBeerById is open");
+            }
+
+            BeerLookupResult result;
+            try {
+                result = delegate.getBeersByIds(beerIds);
+            } catch (RuntimeException e) {
+                // the lookups fail one by one, a batch failing as a whole was never sent
+                circuitBreaker.releasePermission();
+                throw e;
+            }
+
+            boolean recorded = false;
+            for (int i = 0; i < result.beers().size(); i++) {
+                circuitBreaker.onSuccess();
+                recorded = true;
+            }
+            for (Exception failure : result.failures().values()) {
+                recorded |= record(circuitBreaker, failure);
+            }
+            if (!recorded) {
+                circuitBreaker.releasePermission();
+            }
+            return result;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public BeerDTO createBeer(BeerDTO beerDTO) {
+        return call("createBeer", () -> delegate.createBeer(beerDTO));
+    }
+
+    @Override
+    public UUID createBeerReturningId(BeerDTO beerDTO) {
+        return call("createBeerReturningId", () -> delegate.createBeerReturningId(beerDTO));
+    }
+
+    @Override
+    public BeerDTO updateBeer(BeerDTO beerDTO) {
+        return call("updateBeer", () -> delegate.updateBeer(beerDTO));
+    }
+
+    @Override
+    public Integer updateBeerReturningVersion(BeerDTO beerDTO) {
+        return call("updateBeerReturningVersion", () -> delegate.updateBeerReturningVersion(beerDTO));
+    }
+
+    @Override
+    public void deleteBeer(UUID beerId) {
+        call("deleteBeer", () -> {
+            delegate.deleteBeer(beerId);
+            return null;
+        });
+    }
+
+    private <T> T call(String operation, Supplier<T> call) {
+        if (!bulkhead.tryAcquire()) {
+            throw new BeerClientRejectedException("Too many concurrent calls, rejected " + operation);
+        }
+
+        try {
+            return callWithRetries(operation, call);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private <T> T callWithRetries(String operation, Supplier<T> call) {
+        ResilienceProperties.Retry retry = properties.forOperation(operation).getRetry();
+        CircuitBreaker circuitBreaker = getCircuitBreaker(operation);
+        int maxAttempts = IDEMPOTENT_OPERATIONS.contains(operation) ? Math.max(1, retry.getMaxAttempts()) : 1;
+        RuntimeException lastFailure = null;
+
+        retryBudget.onFirstAttempt();
+
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                if (lastFailure != null) {
+                    throw lastFailure;
+                }
+                throw new BeerClientRejectedException("Circuit breaker of " + operation + " is open");
+            }
+
+            try {
+                T result = call.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (DeadlineExceededException | BeerClientRejectedException e) {
+                // never sent, says nothing about the health of the service
+                circuitBreaker.releasePermission();
+                throw e;
+            } catch (RuntimeException e) {
+                if (!isServiceFailure(e)) {
+                    circuitBreaker.onSuccess();
+                    throw e;
+                }
+
+                circuitBreaker.onFailure();
+                lastFailure = e;
+
+                if (attempt >= maxAttempts || !isRetryable(e) || !retryBudget.tryAcquireRetry() || !backOff(retry, attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the outcome of a lookup that failed within a batch, the same as
+     * {@link #callWithRetries} would have for a single call. Returns {@code false} for a lookup
+     * that was never sent, which has no outcome to record.
+     */
+    private static boolean record(CircuitBreaker circuitBreaker, Exception failure) {
+        if (failure instanceof DeadlineExceededException || failure instanceof BeerClientRejectedException
+                || failure instanceof CancellationException) {
+            return false;
+        }
+
+        if (failure instanceof RuntimeException e && isServiceFailure(e)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        return true;
+    }
+
+    private static boolean isServiceFailure(RuntimeException e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        return !(e instanceof HttpServerErrorException.NotImplemented);
+    }
+
+    /**
+     * Sleeps a random time up to the exponential backoff of the attempt. Returns {@code false}
+     * when interrupted, or when the {@link Deadline} in effect would expire during the sleep.
+     */
+    private static boolean backOff(ResilienceProperties.Retry retry, int attempt) {
+        double backoff = retry.getInitialBackoff().toNanos() * Math.pow(retry.getMultiplier(), attempt - 1);
+        long maxSleep = (long) Math.min(backoff, retry.getMaxBackoff().toNanos());
+        Duration sleep = Duration.ofNanos(ThreadLocalRandom.current().nextLong(maxSleep + 1));
+
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.remaining().compareTo(sleep) <= 0) {
+            return false;
+        }
+
+        try {
+            Thread.sleep(sleep);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package guru.springframework.spring6resttemplate.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Time budgets of the {@link BeerClient} operations. {@link #operations} is keyed by operation
+ * name, e.g. {@code createBeer}; unset values fall back to {@link #defaults}. Connect and read
+ * timeouts of the transport itself are set with {@code rest.template.timeouts.connect} and
+ * {@code rest.template.timeouts.read}.
+ */
+@Data
+public class TimeoutProperties {
+
+    private Operation defaults = new Operation(Duration.ofSeconds(30), null);
+    private Map<String, Operation> operations = new HashMap<>();
+
+    public Duration totalFor(String operation) {
+        Operation settings = operations.get(operation);
+        return settings != null && settings.getTotal() != null ? settings.getTotal() : defaults.getTotal();
+    }
+
+    public Duration readFor(String operation) {
+        Operation settings = operations.get(operation);
+        return settings != null && settings.getRead() != null ? settings.getRead() : defaults.getRead();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+
+        /**
+         * Budget of the whole operation, across all of its requests and retries.
+         */
+        private Duration total;
+
+        /**
+         * Read timeout of each request of the operation, instead of the transport's.
+         */
+        private Duration read;
+    }
+}
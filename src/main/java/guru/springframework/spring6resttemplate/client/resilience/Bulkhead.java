@@ -0,0 +1,39 @@
+package guru.springframework.spring6resttemplate.client.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of concurrent calls. Calls beyond the cap wait at most {@code maxWait} for a
+ * slot and are rejected after that, instead of queueing up behind a slow service.
+ */
+public class Bulkhead {
+
+    private final Semaphore permits;
+    private final Duration maxWait;
+
+    public Bulkhead(ResilienceProperties.Bulkhead settings) {
+        this.permits = new Semaphore(settings.getMaxConcurrentCalls());
+        this.maxWait = settings.getMaxWait();
+    }
+
+    public boolean tryAcquire() {
+        try {
+            return maxWait.isZero()
+                    ? permits.tryAcquire()
+                    : permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getAvailableCalls() {
+        return permits.availablePermits();
+    }
+}
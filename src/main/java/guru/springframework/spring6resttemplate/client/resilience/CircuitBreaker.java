@@ -0,0 +1,124 @@
+package guru.springframework.spring6resttemplate.client.resilience;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Count based circuit breaker. It opens once the failure rate over the last
+ * {@code slidingWindowSize} calls reaches the threshold, rejects calls while open, and after the
+ * wait duration lets a few trial calls through: if they all succeed it closes again, the first
+ * failure opens it for another wait duration.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final ResilienceProperties.CircuitBreaker settings;
+    private final Clock clock;
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failedCalls;
+    private Instant openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(String name, ResilienceProperties.CircuitBreaker settings, Clock clock) {
+        this.name = name;
+        this.settings = settings;
+        this.clock = clock;
+        this.window = new boolean[Math.max(1, settings.getSlidingWindowSize())];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(settings.getWaitDurationInOpenState()))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = settings.getPermittedCallsInHalfOpenState();
+            halfOpenSuccesses = 0;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= settings.getPermittedCallsInHalfOpenState()) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Gives back the permission of a call that ended without an outcome for the service, such as
+     * one that was never sent.
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recordedCalls >= settings.getMinimumNumberOfCalls()
+                    && failedCalls * 100 >= settings.getFailureRateThreshold() * recordedCalls) {
+                open();
+            }
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == window.length) {
+            if (window[windowIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+
+        window[windowIndex] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.instant();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+    }
+}
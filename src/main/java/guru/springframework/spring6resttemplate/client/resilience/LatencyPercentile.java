@@ -0,0 +1,53 @@
+package guru.springframework.spring6resttemplate.client.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * A percentile of the most recent response times, recomputed every {@code RECOMPUTE_INTERVAL}
+ * samples from a window of the last {@code WINDOW_SIZE} ones, so that reading it costs nothing.
+ * Until the first window is complete, {@code initial} is reported.
+ */
+public class LatencyPercentile {
+
+    static final int WINDOW_SIZE = 1024;
+    static final int RECOMPUTE_INTERVAL = 64;
+
+    private final double percentile;
+    private final long[] window = new long[WINDOW_SIZE];
+
+    private int next;
+    private long recorded;
+    private volatile long valueNanos;
+
+    public LatencyPercentile(double percentile, Duration initial) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be in (0, 1]");
+        }
+        this.percentile = percentile;
+        this.valueNanos = initial.toNanos();
+    }
+
+    public void record(long nanos) {
+        long[] snapshot = null;
+
+        synchronized (this) {
+            window[next] = nanos;
+            next = (next + 1) % WINDOW_SIZE;
+            recorded++;
+            if (recorded >= WINDOW_SIZE && recorded % RECOMPUTE_INTERVAL == 0) {
+                snapshot = window.clone();
+            }
+        }
+
+        if (snapshot != null) {
+            // sorted outside the lock, recording callers never wait for it
+            Arrays.sort(snapshot);
+            valueNanos = snapshot[(int) Math.ceil(percentile * snapshot.length) - 1];
+        }
+    }
+
+    public long getNanos() {
+        return valueNanos;
+    }
+}
@@ -0,0 +1,167 @@
+package guru.springframework.spring6resttemplate.client.resilience;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the resilience layer. {@link #operations} is keyed by {@code BeerClient} method
+ * name, e.g. {@code getBeerById}. An entry only needs the settings it overrides; everything it
+ * leaves out is taken from {@link #defaults}.
+ */
+@Data
+public class ResilienceProperties {
+
+    private Bulkhead bulkhead = new Bulkhead();
+    private RetryBudget retryBudget = new RetryBudget();
+    private Operation defaults = Operation.withDefaults();
+    private Map<String, Operation> operations = new HashMap<>();
+    private Hedging hedging = new Hedging();
+
+    public Operation forOperation(String operation) {
+        Operation override = operations.get(operation);
+        return override == null ? defaults : override.mergedOnto(defaults);
+    }
+
+    private static <T> T orElse(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    @Data
+    public static class Bulkhead {
+
+        private int maxConcurrentCalls = 64;
+
+        /**
+         * How long a call may wait for a free slot; zero rejects immediately.
+         */
+        private Duration maxWait = Duration.ZERO;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RetryBudget {
+
+        /**
+         * Retries allowed per first attempt, on top of {@link #minRetriesPerSecond}.
+         */
+        private double ratio = 0.1;
+
+        private int minRetriesPerSecond = 10;
+    }
+
+    /**
+     * Settings left {@code null} are unset, which only happens in {@link #operations} entries.
+     */
+    @Data
+    public static class Operation {
+
+        private Retry retry = new Retry();
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        static Operation withDefaults() {
+            Operation operation = new Operation();
+            operation.retry = Retry.withDefaults();
+            operation.circuitBreaker = CircuitBreaker.withDefaults();
+            return operation;
+        }
+
+        Operation mergedOnto(Operation defaults) {
+            Operation merged = new Operation();
+            merged.retry = retry == null ? defaults.retry : retry.mergedOnto(defaults.retry);
+            merged.circuitBreaker = circuitBreaker == null
+                    ? defaults.circuitBreaker : circuitBreaker.mergedOnto(defaults.circuitBreaker);
+            return merged;
+        }
+    }
+
+    @Data
+    public static class Retry {
+
+        /**
+         * Including the first attempt; only idempotent operations are retried.
+         */
+        private Integer maxAttempts;
+        private Duration initialBackoff;
+        private Duration maxBackoff;
+        private Double multiplier;
+
+        static Retry withDefaults() {
+            Retry retry = new Retry();
+            retry.maxAttempts = 3;
+            retry.initialBackoff = Duration.ofMillis(50);
+            retry.maxBackoff = Duration.ofSeconds(1);
+            retry.multiplier = 2.0;
+            return retry;
+        }
+
+        Retry mergedOnto(Retry defaults) {
+            Retry merged = new Retry();
+            merged.maxAttempts = orElse(maxAttempts, defaults.maxAttempts);
+            merged.initialBackoff = orElse(initialBackoff, defaults.initialBackoff);
+            merged.maxBackoff = orElse(maxBackoff, defaults.maxBackoff);
+            merged.multiplier = orElse(multiplier, defaults.multiplier);
+            return merged;
+        }
+    }
+
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * Percentage of failed calls in the sliding window that opens the breaker.
+         */
+        private Integer failureRateThreshold;
+        private Integer slidingWindowSize;
+        private Integer minimumNumberOfCalls;
+        private Duration waitDurationInOpenState;
+        private Integer permittedCallsInHalfOpenState;
+
+        static CircuitBreaker withDefaults() {
+            CircuitBreaker circuitBreaker = new CircuitBreaker();
+            circuitBreaker.failureRateThreshold = 50;
+            circuitBreaker.slidingWindowSize = 20;
+            circuitBreaker.minimumNumberOfCalls = 10;
+            circuitBreaker.waitDurationInOpenState = Duration.ofSeconds(30);
+            circuitBreaker.permittedCallsInHalfOpenState = 3;
+            return circuitBreaker;
+        }
+
+        CircuitBreaker mergedOnto(CircuitBreaker defaults) {
+            CircuitBreaker merged = new CircuitBreaker();
+            merged.failureRateThreshold = orElse(failureRateThreshold, defaults.failureRateThreshold);
+            merged.slidingWindowSize = orElse(slidingWindowSize, defaults.slidingWindowSize);
+            merged.minimumNumberOfCalls = orElse(minimumNumberOfCalls, defaults.minimumNumberOfCalls);
+            merged.waitDurationInOpenState = orElse(waitDurationInOpenState, defaults.waitDurationInOpenState);
+            merged.permittedCallsInHalfOpenState = orElse(permittedCallsInHalfOpenState,
+                    defaults.permittedCallsInHalfOpenState);
+            return merged;
+        }
+    }
+
+    @Data
+    public static class Hedging {
+
+        /**
+         * Percentile of recent response times after which a read is hedged.
+         */
+        private double percentile = 0.95;
+
+        /**
+         * Bounds of the hedge delay; until enough response times are known, {@link #maxDelay} is used.
+         */
+        private Duration minDelay = Duration.ofMillis(5);
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        /**
+         * Hedges allowed per read, on top of a few per second; kept well below the retry budget, as
+         * every hedge is extra load on a service that is merely slow.
+         */
+        private RetryBudget budget = new RetryBudget(0.05, 2);
+    }
+}
@@ -0,0 +1,48 @@
+package guru.springframework.spring6resttemplate.client.resilience;
+
+import java.time.Clock;
+
+/**
+ * Caps retries relative to the traffic, so that retries cannot multiply the load on a service
+ * that is already failing. Every first attempt deposits {@code ratio} of a retry; on top of that
+ * {@code minRetriesPerSecond} retries are always allowed, so that low traffic can still retry.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final int minRetriesPerSecond;
+    private final Clock clock;
+
+    private double balance;
+    private long currentSecond;
+    private int reserveUsed;
+
+    public RetryBudget(ResilienceProperties.RetryBudget settings, Clock clock) {
+        this.ratio = settings.getRatio();
+        this.minRetriesPerSecond = settings.getMinRetriesPerSecond();
+        this.clock = clock;
+    }
+
+    public synchronized void onFirstAttempt() {
+        // the cap keeps a long quiet period from building up an unbounded burst of retries
+        balance = Math.min(balance + ratio, Math.max(1, minRetriesPerSecond));
+    }
+
+    public synchronized boolean tryAcquireRetry() {
+        if (balance >= 1) {
+            balance -= 1;
+            return true;
+        }
+
+        long second = clock.millis() / 1000;
+        if (second != currentSecond) {
+            currentSecond = second;
+            reserveUsed = 0;
+        }
+        if (reserveUsed < minRetriesPerSecond) {
+            reserveUsed++;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,168 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClientRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the requests in flight to the beer service with a limit that follows the service's
+ * health (AIMD): every call that comes back in time while the limit is at least half used raises
+ * the limit by {@code 1 / limit}, roughly one per round trip, and every overload signal (a 429, 503
+ * or 504, an I/O error, or headers arriving later than the latency threshold) cuts it by 10%.
+ * Calls over the limit wait at most {@code maxWait} for a slot and are rejected with a
+ * {@link BeerClientRejectedException} after that.
+ * <p>
+ * A slot is held until the response headers arrive, not while the body is read.
+ */
+public class AdaptiveConcurrencyLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String LIMIT_METRIC = "beer.client.concurrency.limit";
+    public static final String IN_FLIGHT_METRIC = "beer.client.concurrency.in-flight";
+    public static final String REJECTED_METRIC = "beer.client.concurrency.rejected";
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final long maxWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    // written under the lock, volatile so the gauges can read them without it
+    private volatile double limit;
+    private volatile int inFlight;
+
+    private MeterRegistry meterRegistry;
+    private List<Meter> meters = List.of();
+    private Counter rejectedCounter;
+    private LongSupplier nanoClock = System::nanoTime;
+
+    public AdaptiveConcurrencyLimitInterceptor(int initialLimit, int minLimit, int maxLimit,
+                                               Duration latencyThreshold, Duration maxWait) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        acquire();
+
+        long start = nanoClock.getAsLong();
+        boolean overloaded = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int status = response.getStatusCode().value();
+            overloaded = status == 429 || status == 503 || status == 504
+                    || nanoClock.getAsLong() - start > latencyThresholdNanos;
+            return response;
+        } finally {
+            release(overloaded);
+        }
+    }
+
+    /**
+     * Registers the current limit and in-flight requests as gauges, and counts rejected calls.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        setMeterRegistry(meterRegistry, Tags.empty());
+    }
+
+    /**
+     * As {@link #setMeterRegistry(MeterRegistry)}, with the given tags on every meter, for
+     * registering the limiters of several tenants side by side.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry, Iterable<Tag> tags) {
+        this.rejectedCounter = Counter.builder(REJECTED_METRIC).tags(tags).register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+        this.meters = List.of(
+                Gauge.builder(LIMIT_METRIC, this, AdaptiveConcurrencyLimitInterceptor::getLimit).tags(tags).register(meterRegistry),
+                Gauge.builder(IN_FLIGHT_METRIC, this, AdaptiveConcurrencyLimitInterceptor::getInFlight).tags(tags).register(meterRegistry),
+                rejectedCounter);
+    }
+
+    /**
+     * Removes the meters registered for this limiter, so that a limiter replacing it under the same
+     * tags is not shadowed by gauges of one that is gone.
+     */
+    void removeMeters() {
+        if (meterRegistry != null) {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    void setNanoClock(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    reject();
+                }
+                remaining = slotFreed.awaitNanos(remaining);
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reject() {
+        if (rejectedCounter != null) {
+            rejectedCounter.increment();
+        }
+        throw new BeerClientRejectedException("Concurrency limit of " + (int) limit + " requests reached");
+    }
+
+    private void release(boolean overloaded) {
+        lock.lock();
+        try {
+            if (overloaded) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (inFlight * 2 >= limit) {
+                // only grow while the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
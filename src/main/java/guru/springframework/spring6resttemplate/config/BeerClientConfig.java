@@ -0,0 +1,111 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerCatalogMirror;
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.client.CachingBeerClient;
+import guru.springframework.spring6resttemplate.client.DeadlineBeerClient;
+import guru.springframework.spring6resttemplate.client.HedgingBeerClient;
+import guru.springframework.spring6resttemplate.client.MeteredBeerClient;
+import guru.springframework.spring6resttemplate.client.ResilientBeerClient;
+import guru.springframework.spring6resttemplate.client.TimeoutProperties;
+import guru.springframework.spring6resttemplate.client.resilience.ResilienceProperties;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Assembles the {@link BeerClient} handed to the rest of the application from
+ * {@link BeerClientImpl} and the optional decorators enabled through properties.
+ * <p>
+ * The DTOs are registered for reflection, together with the deserializers they name, so that the
+ * client also runs as a native image built with Spring AOT.
+ */
+@Configuration(proxyBeanMethods = false)
+@RegisterReflectionForBinding({BeerDTO.class, BeerDTOPageImpl.class})
+public class BeerClientConfig {
+
+    @Value("${rest.template.cache.enabled:false}")
+    boolean cacheEnabled;
+
+    @Value("${rest.template.cache.max-size:10000}")
+    int cacheMaxSize;
+
+    @Value("${rest.template.cache.ttl:60s}")
+    Duration cacheTtl;
+
+    @Value("${rest.template.metrics.enabled:false}")
+    boolean metricsEnabled;
+
+    @Value("${rest.template.resilience.enabled:false}")
+    boolean resilienceEnabled;
+
+    @Value("${rest.template.resilience.hedging.enabled:false}")
+    boolean hedgingEnabled;
+
+    @Value("${rest.template.mirror.sync-interval:30s}")
+    Duration mirrorSyncInterval;
+
+    @Value("${rest.template.mirror.full-sync-interval:1h}")
+    Duration mirrorFullSyncInterval;
+
+    @Bean
+    @ConfigurationProperties(prefix = "rest.template.resilience")
+    ResilienceProperties resilienceProperties() {
+        return new ResilienceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "rest.template.timeouts")
+    TimeoutProperties timeoutProperties() {
+        return new TimeoutProperties();
+    }
+
+    @Bean
+    @Primary
+    BeerClient beerClient(BeerClientImpl beerClientImpl, ResilienceProperties resilienceProperties,
+                          TimeoutProperties timeoutProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        BeerClient beerClient = beerClientImpl;
+
+        if (hedgingEnabled) {
+            // inside the resilience layer, so a hedged read takes one bulkhead slot and one retry
+            beerClient = new HedgingBeerClient(beerClient, resilienceProperties.getHedging(),
+                    RestTemplateBuilderConfig.meterRegistry(meterRegistry));
+        }
+
+        if (resilienceEnabled) {
+            beerClient = new ResilientBeerClient(beerClient, resilienceProperties);
+        }
+
+        if (cacheEnabled) {
+            // outside the resilience layer, so cache hits are served while the breaker is open and
+            // never take a bulkhead slot
+            beerClient = new CachingBeerClient(beerClient, cacheMaxSize, cacheTtl);
+        }
+
+        // outside the resilience layer, so retries and their backoff share the operation's budget
+        beerClient = new DeadlineBeerClient(beerClient, timeoutProperties);
+
+        if (metricsEnabled) {
+            beerClient = new MeteredBeerClient(beerClient, RestTemplateBuilderConfig.meterRegistry(meterRegistry));
+        }
+
+        return beerClient;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "rest.template.mirror", name = "enabled", havingValue = "true")
+    BeerCatalogMirror beerCatalogMirror(BeerClient beerClient) {
+        return new BeerCatalogMirror(beerClient, mirrorSyncInterval, mirrorFullSyncInterval);
+    }
+}
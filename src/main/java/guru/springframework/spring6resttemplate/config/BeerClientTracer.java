@@ -0,0 +1,131 @@
+package guru.springframework.spring6resttemplate.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a latency histogram per endpoint and phase of the exchanges traced by
+ * {@link TracingClientHttpRequestInterceptor}, and logs exchanges slower than a threshold with
+ * their phase breakdown. Recording goes into HdrHistogram {@link Recorder}s, which are wait-free
+ * for writers; only {@link #snapshot()} takes a lock, per endpoint, to fold the recorded interval
+ * into the totals. Values are kept in microseconds with two significant digits.
+ * <p>
+ * Slow exchanges are all counted, but only the given fraction is logged, so that a slow service
+ * does not flood the log.
+ */
+@Slf4j
+public class BeerClientTracer {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final long slowCallThresholdNanos;
+    private final double slowCallSampleRate;
+    private final ConcurrentHashMap<String, EndpointHistograms> endpoints = new ConcurrentHashMap<>();
+
+    public BeerClientTracer(Duration slowCallThreshold, double slowCallSampleRate) {
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+        this.slowCallSampleRate = slowCallSampleRate;
+    }
+
+    void record(String endpoint, long totalNanos, long[] phaseNanos) {
+        EndpointHistograms histograms = endpoints.computeIfAbsent(endpoint, EndpointHistograms::new);
+        histograms.record(totalNanos, phaseNanos);
+
+        if (totalNanos > slowCallThresholdNanos) {
+            histograms.slowCalls.increment();
+            if (ThreadLocalRandom.current().nextDouble() < slowCallSampleRate) {
+                log.warn("Slow call {} took {} ms: {}", endpoint, millis(totalNanos), breakdown(phaseNanos));
+            }
+        }
+    }
+
+    /**
+     * Percentiles of every endpoint traced so far, keyed and sorted by endpoint.
+     */
+    public Map<String, EndpointLatency> snapshot() {
+        Map<String, EndpointLatency> snapshot = new TreeMap<>();
+        endpoints.forEach((endpoint, histograms) -> snapshot.put(endpoint, histograms.snapshot()));
+        return snapshot;
+    }
+
+    private static String breakdown(long[] phaseNanos) {
+        StringBuilder breakdown = new StringBuilder();
+        for (TracePhase phase : TracePhase.values()) {
+            if (!breakdown.isEmpty()) {
+                breakdown.append(", ");
+            }
+            breakdown.append(phase.name().toLowerCase()).append(' ').append(millis(phaseNanos[phase.ordinal()])).append(" ms");
+        }
+        return breakdown.toString();
+    }
+
+    private static long millis(long nanos) {
+        return Duration.ofNanos(nanos).toMillis();
+    }
+
+    private static final class EndpointHistograms {
+
+        private final String endpoint;
+        private final Recorder total = new Recorder(SIGNIFICANT_DIGITS);
+        private final Recorder[] phases = new Recorder[TracePhase.values().length];
+        private final LongAdder slowCalls = new LongAdder();
+
+        // only touched by snapshot(), under the lock
+        private final Histogram totalHistogram = new Histogram(SIGNIFICANT_DIGITS);
+        private final Histogram[] phaseHistograms = new Histogram[TracePhase.values().length];
+
+        EndpointHistograms(String endpoint) {
+            this.endpoint = endpoint;
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new Recorder(SIGNIFICANT_DIGITS);
+                phaseHistograms[i] = new Histogram(SIGNIFICANT_DIGITS);
+            }
+        }
+
+        void record(long totalNanos, long[] phaseNanos) {
+            total.recordValue(micros(totalNanos));
+            for (int i = 0; i < phases.length; i++) {
+                phases[i].recordValue(micros(phaseNanos[i]));
+            }
+        }
+
+        synchronized EndpointLatency snapshot() {
+            totalHistogram.add(total.getIntervalHistogram());
+
+            Map<TracePhase, EndpointLatency.Percentiles> phasePercentiles = new EnumMap<>(TracePhase.class);
+            for (TracePhase phase : TracePhase.values()) {
+                Histogram histogram = phaseHistograms[phase.ordinal()];
+                histogram.add(phases[phase.ordinal()].getIntervalHistogram());
+                phasePercentiles.put(phase, percentiles(histogram));
+            }
+
+            return new EndpointLatency(endpoint, slowCalls.sum(), percentiles(totalHistogram), phasePercentiles);
+        }
+
+        private static EndpointLatency.Percentiles percentiles(Histogram histogram) {
+            return new EndpointLatency.Percentiles(histogram.getTotalCount(),
+                    duration(histogram.getValueAtPercentile(50)),
+                    duration(histogram.getValueAtPercentile(90)),
+                    duration(histogram.getValueAtPercentile(99)),
+                    duration(histogram.getValueAtPercentile(99.9)),
+                    duration(histogram.getMaxValue()));
+        }
+
+        private static long micros(long nanos) {
+            return Math.max(0, nanos / 1000);
+        }
+
+        private static Duration duration(long micros) {
+            return Duration.ofNanos(micros * 1000);
+        }
+    }
+}
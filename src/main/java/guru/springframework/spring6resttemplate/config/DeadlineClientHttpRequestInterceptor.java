@@ -0,0 +1,40 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.Deadline;
+import guru.springframework.spring6resttemplate.client.DeadlineExceededException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Fails a request with {@link DeadlineExceededException} instead of sending it when the
+ * {@link Deadline} in effect has less than {@code minRemaining} left, which is not enough for a
+ * response anyway.
+ */
+public class DeadlineClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Duration minRemaining;
+
+    public DeadlineClientHttpRequestInterceptor(Duration minRemaining) {
+        this.minRemaining = minRemaining;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        Deadline deadline = Deadline.current();
+
+        if (deadline != null) {
+            Duration remaining = deadline.remaining();
+            if (remaining.compareTo(minRemaining) < 0) {
+                throw new DeadlineExceededException("Deadline leaves " + Math.max(0, remaining.toMillis())
+                        + " ms for " + request.getMethod() + " " + request.getURI().getPath());
+            }
+        }
+
+        return execution.execute(request, body);
+    }
+}
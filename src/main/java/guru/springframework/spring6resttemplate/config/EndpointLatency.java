@@ -0,0 +1,16 @@
+package guru.springframework.spring6resttemplate.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Latency of the exchanges with one endpoint since the tracer started, as a whole and per phase.
+ *
+ * @param endpoint  method and URI template, e.g. {@code GET /api/v1/beer/{beerId}}
+ * @param slowCalls exchanges over the slow-call threshold, logged or not
+ */
+public record EndpointLatency(String endpoint, long slowCalls, Percentiles total, Map<TracePhase, Percentiles> phases) {
+
+    public record Percentiles(long count, Duration p50, Duration p90, Duration p99, Duration p999, Duration max) {
+    }
+}
@@ -0,0 +1,88 @@
+package guru.springframework.spring6resttemplate.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Asks for gzip compressed responses and decompresses them while they are read, so a large page
+ * is never held compressed and decompressed at the same time. It is used for both transports,
+ * with the built-in decompression of the Apache HttpClient turned off, so interceptors registered
+ * after this one see the compressed bytes as they came over the wire.
+ */
+public class GzipClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String GZIP = "gzip";
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, GZIP);
+
+        ClientHttpResponse response = execution.execute(request, body);
+
+        if (GZIP.equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            return new GzipClientHttpResponse(response);
+        }
+        return response;
+    }
+
+    private static class GzipClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final HttpHeaders headers;
+        private InputStream body;
+
+        GzipClientHttpResponse(ClientHttpResponse response) {
+            this.response = response;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(response.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                PushbackInputStream compressed = new PushbackInputStream(response.getBody());
+                int first = compressed.read();
+
+                if (first == -1) {
+                    // e.g. a 304, which keeps the headers but has no body to decompress
+                    body = InputStream.nullInputStream();
+                } else {
+                    compressed.unread(first);
+                    body = new GZIPInputStream(compressed, 8192);
+                }
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
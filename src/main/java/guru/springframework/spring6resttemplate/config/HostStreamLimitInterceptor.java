@@ -0,0 +1,112 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.Deadline;
+import guru.springframework.spring6resttemplate.client.DeadlineExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the requests in flight per host. The JDK client multiplexes all requests to a host over one
+ * HTTP/2 connection and fails those beyond the server's {@code SETTINGS_MAX_CONCURRENT_STREAMS}
+ * with "too many concurrent streams" rather than queueing them; requests over the cap wait here
+ * instead, under a {@link Deadline} no longer than it allows.
+ * <p>
+ * A stream stays open until its body is read, so a slot is held until the response is closed.
+ */
+class HostStreamLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final int maxStreamsPerHost;
+    private final ConcurrentMap<String, Semaphore> streams = new ConcurrentHashMap<>();
+
+    HostStreamLimitInterceptor(int maxStreamsPerHost) {
+        if (maxStreamsPerHost < 1) {
+            throw new IllegalArgumentException("At least one stream per host is needed");
+        }
+        this.maxStreamsPerHost = maxStreamsPerHost;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        Semaphore hostStreams = streams.computeIfAbsent(request.getURI().getScheme() + "://" + request.getURI().getAuthority(),
+                host -> new Semaphore(maxStreamsPerHost));
+        acquire(hostStreams, request);
+
+        try {
+            return new StreamReleasingResponse(execution.execute(request, body), hostStreams);
+        } catch (IOException | RuntimeException e) {
+            hostStreams.release();
+            throw e;
+        }
+    }
+
+    private static void acquire(Semaphore hostStreams, HttpRequest request) throws IOException {
+        Deadline deadline = Deadline.current();
+        try {
+            if (deadline == null) {
+                hostStreams.acquire();
+            } else if (!hostStreams.tryAcquire(Math.max(0, deadline.remaining().toNanos()), TimeUnit.NANOSECONDS)) {
+                throw new DeadlineExceededException("Deadline exceeded waiting for a stream to "
+                        + request.getURI().getAuthority());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a stream to " + request.getURI().getAuthority());
+        }
+    }
+
+    private static class StreamReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Semaphore hostStreams;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        StreamReleasingResponse(ClientHttpResponse delegate, Semaphore hostStreams) {
+            this.delegate = delegate;
+            this.hostStreams = hostStreams;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    hostStreams.release();
+                }
+            }
+        }
+    }
+}
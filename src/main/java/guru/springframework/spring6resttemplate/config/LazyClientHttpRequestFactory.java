@@ -0,0 +1,28 @@
+package guru.springframework.spring6resttemplate.config;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.function.Supplier;
+
+/**
+ * Creates the underlying request factory, and with it the HTTP engine and its connection pool, on
+ * the first request instead of when the application context starts.
+ */
+class LazyClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final SingletonSupplier<ClientHttpRequestFactory> delegate;
+
+    LazyClientHttpRequestFactory(Supplier<ClientHttpRequestFactory> delegate) {
+        this.delegate = SingletonSupplier.of(delegate);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return delegate.obtain().createRequest(uri, httpMethod);
+    }
+}
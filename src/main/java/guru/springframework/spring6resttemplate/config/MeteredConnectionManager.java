@@ -0,0 +1,92 @@
+package guru.springframework.spring6resttemplate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Connection manager decorator timing how long requests wait to lease a pooled connection, as
+ * {@value #POOL_WAIT_METRIC}. Idle eviction keeps working on the wrapped pool itself. The lease
+ * and the connect of new connections are also traced as {@link TracePhase#CONNECTION}; without a
+ * meter registry only the trace is recorded.
+ */
+class MeteredConnectionManager implements HttpClientConnectionManager {
+
+    static final String POOL_WAIT_METRIC = "beer.client.pool.wait";
+
+    private final HttpClientConnectionManager delegate;
+    private final Timer poolWait;
+
+    MeteredConnectionManager(HttpClientConnectionManager delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.poolWait = meterRegistry != null ? Timer.builder(POOL_WAIT_METRIC).register(meterRegistry) : null;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest leaseRequest = delegate.lease(id, route, requestTimeout, state);
+
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return leaseRequest.get(timeout);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    if (poolWait != null) {
+                        poolWait.record(elapsed, TimeUnit.NANOSECONDS);
+                    }
+                    RequestTrace.record(TracePhase.CONNECTION, elapsed);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return leaseRequest.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.connect(endpoint, connectTimeout, context);
+        } finally {
+            RequestTrace.record(TracePhase.CONNECTION, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
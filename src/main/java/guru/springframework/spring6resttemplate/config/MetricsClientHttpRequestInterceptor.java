@@ -0,0 +1,140 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every exchange: the time until the response headers arrive as {@value #EXCHANGE_METRIC},
+ * and the request and response body sizes. The response is counted while it is read, so chunked
+ * responses without a {@code Content-Length} are measured as well.
+ */
+public class MetricsClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String EXCHANGE_METRIC = "beer.client.exchange";
+    public static final String REQUEST_SIZE_METRIC = "beer.client.request.size";
+    public static final String RESPONSE_SIZE_METRIC = "beer.client.response.size";
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsClientHttpRequestInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String method = request.getMethod().name();
+        String uri = uriTemplate(request.getURI().getPath());
+
+        summary(REQUEST_SIZE_METRIC, method, uri).record(body.length);
+
+        long start = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException e) {
+            exchangeTimer(method, uri, "IO_ERROR").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+
+        String status = String.valueOf(response.getStatusCode().value());
+        exchangeTimer(method, uri, status).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        return new CountingClientHttpResponse(response, summary(RESPONSE_SIZE_METRIC, method, uri));
+    }
+
+    static String uriTemplate(String path) {
+        if (path.endsWith(BeerClientImpl.GET_BEER_PATH)) {
+            return BeerClientImpl.GET_BEER_PATH;
+        }
+        if (path.contains(BeerClientImpl.GET_BEER_PATH + "/")) {
+            return BeerClientImpl.GET_BEER_BY_ID_PATH;
+        }
+        return "UNKNOWN";
+    }
+
+    private Timer exchangeTimer(String method, String uri, String status) {
+        return Timer.builder(EXCHANGE_METRIC)
+                .tags("method", method, "uri", uri, "status", status)
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary summary(String name, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry);
+    }
+
+    private static class CountingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final DistributionSummary responseSize;
+        private long bytesRead;
+        private boolean recorded;
+
+        CountingClientHttpResponse(ClientHttpResponse response, DistributionSummary responseSize) {
+            this.response = response;
+            this.responseSize = responseSize;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(response.getBody()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        bytesRead++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        bytesRead += n;
+                    }
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (!recorded) {
+                recorded = true;
+                responseSize.record(bytesRead);
+            }
+            response.close();
+        }
+    }
+}
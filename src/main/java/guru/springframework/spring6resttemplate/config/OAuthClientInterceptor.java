@@ -1,6 +1,9 @@
 package guru.springframework.spring6resttemplate.config;
 
-import jdk.jfr.Category;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
@@ -13,48 +16,243 @@ import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import static java.util.Objects.isNull;
 
 /**
  * Created by jt, Spring Framework Guru.
+ *
+ * Access tokens are cached together with their rendered {@code Bearer} header value. Once a
+ * token enters the refresh-ahead window a single background refresh is started while callers
+ * keep using the current token; only an expired or missing token makes callers wait, and then
+ * all of them wait on the same refresh. After a failed background refresh the next one waits for
+ * the refresh backoff, so an unavailable authorization server is not asked again on every request
+ * while the current token is still good.
+ * <p>
+ * The authorized client manager and the client registration are resolved on the first token
+ * fetch rather than at startup, which keeps them off the startup path of short-lived jobs.
  */
 
 @Component
 public class OAuthClientInterceptor implements ClientHttpRequestInterceptor {
-    private final OAuth2AuthorizedClientManager manager;
+
+    /**
+     * Should stay below the clock skew of the client credentials provider (60 seconds), otherwise
+     * the manager hands back the same token and the refresh is wasted.
+     */
+    static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofSeconds(30);
+
+    static final Duration DEFAULT_REFRESH_BACKOFF = Duration.ofSeconds(5);
+
+    static final String DEFAULT_REGISTRATION_ID = "springauth";
+
+    public static final String TOKEN_ACQUISITION_METRIC = "beer.client.token.acquisition";
+
+    private final Supplier<OAuth2AuthorizedClientManager> manager;
     private final Authentication principal;
-    private final ClientRegistration clientRegistration;
+    private final Supplier<ClientRegistration> clientRegistration;
+    private final Supplier<OAuth2AuthorizeRequest> authorizeRequest;
+    private final AtomicReference<CachedToken> cachedToken = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<CachedToken>> refreshInFlight = new AtomicReference<>();
+    private final Executor refreshExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("oauth-token-refresh-", 0).factory());
+
+    private Duration refreshAhead = DEFAULT_REFRESH_AHEAD;
+    private Duration refreshBackoff = DEFAULT_REFRESH_BACKOFF;
+    private volatile Instant lastRefreshFailure;
+    private Clock clock = Clock.systemUTC();
+    private Timer cachedTokenTimer;
+    private Timer refreshedTokenTimer;
+
+    @Autowired
+    public OAuthClientInterceptor(ObjectProvider<OAuth2AuthorizedClientManager> manager,
+                                  ObjectProvider<ClientRegistrationRepository> clientRegistrationRepository) {
+        this(() -> manager.getObject(), () -> clientRegistrationRepository.getObject(), DEFAULT_REGISTRATION_ID);
+    }
 
     public OAuthClientInterceptor(OAuth2AuthorizedClientManager manager,
                                   ClientRegistrationRepository clientRegistrationRepository) {
-        this.manager = manager;
+        this(manager, clientRegistrationRepository, DEFAULT_REGISTRATION_ID);
+    }
+
+    /**
+     * Authorizes requests with the given client registration, e.g. the one of a tenant; each
+     * interceptor caches its own token.
+     */
+    public OAuthClientInterceptor(OAuth2AuthorizedClientManager manager,
+                                  ClientRegistrationRepository clientRegistrationRepository,
+                                  String registrationId) {
+        this(() -> manager, () -> clientRegistrationRepository, registrationId);
+    }
+
+    private OAuthClientInterceptor(Supplier<OAuth2AuthorizedClientManager> manager,
+                                   Supplier<ClientRegistrationRepository> clientRegistrationRepository,
+                                   String registrationId) {
+        this.manager = SingletonSupplier.of(manager);
         this.principal = createPrincipal();
-        this.clientRegistration = clientRegistrationRepository.findByRegistrationId("springauth");
+        this.clientRegistration = SingletonSupplier.of(() -> {
+            ClientRegistration registration = clientRegistrationRepository.get().findByRegistrationId(registrationId);
+            if (isNull(registration)) {
+                throw new IllegalArgumentException("Unknown client registration " + registrationId);
+            }
+            return registration;
+        });
+        this.authorizeRequest = SingletonSupplier.of(() -> OAuth2AuthorizeRequest
+                .withClientRegistrationId(clientRegistration.get().getRegistrationId())
+                .principal(principal)
+                .build());
     }
 
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
-        OAuth2AuthorizeRequest oAuth2AuthorizeRequest = OAuth2AuthorizeRequest
-                .withClientRegistrationId(clientRegistration.getRegistrationId())
-                .principal(createPrincipal())
-                .build();
+        long start = System.nanoTime();
+        String headerValue = bearerHeaderValue();
+        RequestTrace.record(TracePhase.TOKEN, System.nanoTime() - start);
 
-        OAuth2AuthorizedClient client = manager.authorize(oAuth2AuthorizeRequest);
+        request.getHeaders().add(HttpHeaders.AUTHORIZATION, headerValue);
+
+        return execution.execute(request, body);
+    }
+
+    /**
+     * Starts fetching a token ahead of the first request, e.g. while a job is still starting up.
+     * The returned future fails if the fetch does; the first request then tries again.
+     */
+    public CompletableFuture<Void> warmUp() {
+        CachedToken current = cachedToken.get();
+        if (current != null && clock.instant().isBefore(current.refreshAt())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return refresh().thenAccept(token -> {
+        });
+    }
+
+    public void setRefreshAhead(Duration refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * How long to wait after a failed refresh before refreshing in the background again. Callers
+     * without a valid token do not wait for it.
+     */
+    public void setRefreshBackoff(Duration refreshBackoff) {
+        this.refreshBackoff = refreshBackoff;
+    }
+
+    /**
+     * Times token acquisition, tagged by whether the token came from the cache or callers had to
+     * wait for a refresh.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.cachedTokenTimer = Timer.builder(TOKEN_ACQUISITION_METRIC).tag("source", "cache").register(meterRegistry);
+        this.refreshedTokenTimer = Timer.builder(TOKEN_ACQUISITION_METRIC).tag("source", "refresh").register(meterRegistry);
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    Instant getLastRefreshFailure() {
+        return lastRefreshFailure;
+    }
+
+    String bearerHeaderValue() {
+        long start = System.nanoTime();
+        CachedToken current = cachedToken.get();
+        Instant now = clock.instant();
+
+        if (current != null && now.isBefore(current.refreshAt())) {
+            record(cachedTokenTimer, start);
+            return current.headerValue();
+        }
+
+        if (current != null && now.isBefore(current.expiresAt())) {
+            // still valid, refresh in the background and keep serving the current token
+            Instant lastFailure = lastRefreshFailure;
+            if (lastFailure == null || !now.isBefore(lastFailure.plus(refreshBackoff))) {
+                refresh();
+            }
+            record(cachedTokenTimer, start);
+            return current.headerValue();
+        }
+
+        try {
+            return refresh().join().headerValue();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Missing credentials", e.getCause());
+        } finally {
+            record(refreshedTokenTimer, start);
+        }
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CompletableFuture<CachedToken> refresh() {
+        while (true) {
+            CompletableFuture<CachedToken> inFlight = refreshInFlight.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+
+            CompletableFuture<CachedToken> candidate = new CompletableFuture<>();
+            if (refreshInFlight.compareAndSet(null, candidate)) {
+                refreshExecutor.execute(() -> completeRefresh(candidate));
+                return candidate;
+            }
+        }
+    }
+
+    private void completeRefresh(CompletableFuture<CachedToken> refresh) {
+        try {
+            CachedToken token = fetchToken();
+            cachedToken.set(token);
+            lastRefreshFailure = null;
+            refreshInFlight.compareAndSet(refresh, null);
+            refresh.complete(token);
+        } catch (RuntimeException e) {
+            // the previous token, if any, stays cached and is used until it expires
+            lastRefreshFailure = clock.instant();
+            refreshInFlight.compareAndSet(refresh, null);
+            refresh.completeExceptionally(e);
+        }
+    }
+
+    private CachedToken fetchToken() {
+        OAuth2AuthorizedClient client = manager.get().authorize(authorizeRequest.get());
 
         if (isNull(client)) {
             throw new IllegalStateException("Missing credentials");
         }
 
-        request.getHeaders().add(HttpHeaders.AUTHORIZATION,
-                "Bearer " + client.getAccessToken().getTokenValue());
+        OAuth2AccessToken accessToken = client.getAccessToken();
+        Instant expiresAt = isNull(accessToken.getExpiresAt()) ? Instant.MAX : accessToken.getExpiresAt();
+        Instant refreshAt = expiresAt.equals(Instant.MAX) ? Instant.MAX : expiresAt.minus(refreshAhead);
 
-        return execution.execute(request, body);
+        return new CachedToken("Bearer " + accessToken.getTokenValue(), refreshAt, expiresAt);
+    }
+
+    private record CachedToken(String headerValue, Instant refreshAt, Instant expiresAt) {
     }
 
     private Authentication createPrincipal() {
@@ -90,7 +288,7 @@ public class OAuthClientInterceptor implements ClientHttpRequestInterceptor {
 
             @Override
             public String getName() {
-                return clientRegistration.getClientId();
+                return clientRegistration.get().getClientId();
             }
         };
     }
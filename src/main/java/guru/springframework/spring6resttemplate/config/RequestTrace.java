@@ -0,0 +1,49 @@
+package guru.springframework.spring6resttemplate.config;
+
+/**
+ * Phase timings of the exchange running on the current thread, filled in by the interceptors and
+ * the connection manager while {@link TracingClientHttpRequestInterceptor} has a trace open.
+ * Recording without an open trace does nothing.
+ */
+final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final long[] phaseNanos = new long[TracePhase.values().length];
+
+    static void record(TracePhase phase, long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.phaseNanos[phase.ordinal()] += nanos;
+        }
+    }
+
+    /**
+     * Makes this trace the current one, returning the one it replaces.
+     */
+    RequestTrace open() {
+        RequestTrace previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    static void restore(RequestTrace previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    long get(TracePhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    void set(TracePhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] = nanos;
+    }
+
+    long[] phaseNanos() {
+        return phaseNanos;
+    }
+}
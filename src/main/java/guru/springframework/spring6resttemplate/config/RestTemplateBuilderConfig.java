@@ -1,22 +1,181 @@
 package guru.springframework.spring6resttemplate.config;
 
 
+import guru.springframework.spring6resttemplate.client.Deadline;
+import guru.springframework.spring6resttemplate.client.TimeoutProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateBuilderConfigurer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.security.oauth2.client.*;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
-@Configuration
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * The transport is chosen with {@code rest.template.transport}: {@code apache}, the default, is a
+ * pooled Apache HttpClient speaking HTTP/1.1; {@code jdk} is the JDK {@link HttpClient}, which
+ * negotiates HTTP/2 (h2c on plain connections) and multiplexes concurrent requests over a single
+ * connection per host, at most {@code rest.template.jdk.max-streams-per-host} at a time.
+ * <p>
+ * With {@code rest.template.concurrency-limit.enabled} the requests in flight are capped by an
+ * {@link AdaptiveConcurrencyLimitInterceptor}, behind the OAuth interceptor so that the limit
+ * follows the latency of the beer service alone, not that of the token endpoint.
+ * <p>
+ * Connections time out after {@code rest.template.timeouts.connect}, which also bounds the wait for
+ * a pooled connection, and responses after {@code rest.template.timeouts.read}. Under a
+ * {@link Deadline} requests are not sent with less than {@code rest.template.timeouts.min-remaining}
+ * left, and on the pooled transport the read timeout is capped to the time remaining.
+ * <p>
+ * With {@code rest.template.multi-tenant.enabled} a {@link TenantBeerClientFactory} hands out
+ * clients for the beer service deployments under {@code rest.template.multi-tenant.tenants}, each
+ * with its own pool, token cache and concurrency limit on the pooled transport.
+ * <p>
+ * With {@code rest.template.tracing.enabled} every exchange is traced into a {@link BeerClientTracer},
+ * which keeps per-endpoint latency histograms broken down by phase and logs slow calls.
+ * <p>
+ * The HTTP engine and the OAuth client manager are created on the first request, not at startup.
+ * With {@code rest.template.warm-up.enabled} both, and a first token, are fetched in the background
+ * once the application has started.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
 public class RestTemplateBuilderConfig {
 
+    static final String TRANSPORT_PROPERTY = "rest.template.transport";
+
+    static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(2);
+
+    /**
+     * Retries a request that failed with an I/O error before it could be answered, such as on a
+     * stale pooled connection, but never one answered with {@code 429} or {@code 503}: those are
+     * left to {@code ResilientBeerClient}, which backs off within its retry budget and counts them
+     * for its circuit breaker.
+     */
+    public static final HttpRequestRetryStrategy IO_RETRY_STRATEGY = new DefaultHttpRequestRetryStrategy() {
+        @Override
+        public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+            return false;
+        }
+    };
+
+    /**
+     * Not read, the transport beans are selected by condition; bound so that an unknown transport
+     * fails startup instead of leaving the client without a request factory.
+     */
+    @Value("${" + TRANSPORT_PROPERTY + ":apache}")
+    Transport transport = Transport.APACHE;
+
     @Value("${rest.template.rootUrl}")
     String rootUrl;
 
+    @Value("${rest.template.pool.max-total:100}")
+    int maxTotalConnections;
+
+    @Value("${rest.template.pool.max-per-route:50}")
+    int maxConnectionsPerRoute;
+
+    /**
+     * The longest an idle pooled connection is kept; a shorter {@code Keep-Alive} timeout sent by
+     * the server takes precedence, so that a connection the server is about to close is not reused.
+     */
+    @Value("${rest.template.pool.keep-alive:30s}")
+    Duration keepAlive;
+
+    @Value("${rest.template.pool.idle-eviction:60s}")
+    Duration idleEviction;
+
+    /**
+     * Below the {@code SETTINGS_MAX_CONCURRENT_STREAMS} of common servers, 100 for Tomcat and 128
+     * for Jetty and nginx; the JDK client fails requests beyond it instead of queueing them.
+     */
+    @Value("${rest.template.jdk.max-streams-per-host:64}")
+    int maxStreamsPerHost = 64;
+
+    @Value("${rest.template.timeouts.connect:2s}")
+    Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+
+    @Value("${rest.template.timeouts.read:10s}")
+    Duration readTimeout = Duration.ofSeconds(10);
+
+    @Value("${rest.template.timeouts.min-remaining:10ms}")
+    Duration deadlineMinRemaining = Duration.ofMillis(10);
+
+    @Value("${rest.template.metrics.enabled:false}")
+    boolean metricsEnabled;
+
+    @Value("${rest.template.compression.enabled:true}")
+    boolean compressionEnabled;
+
+    @Value("${rest.template.wire-format:json}")
+    WireFormat wireFormat = WireFormat.JSON;
+
+    @Value("${rest.template.tracing.enabled:false}")
+    boolean tracingEnabled;
+
+    @Value("${rest.template.tracing.slow-threshold:1s}")
+    Duration slowCallThreshold = Duration.ofSeconds(1);
+
+    @Value("${rest.template.tracing.slow-sample-rate:1.0}")
+    double slowCallSampleRate = 1.0;
+
+    @Value("${rest.template.concurrency-limit.enabled:false}")
+    boolean concurrencyLimitEnabled;
+
+    @Value("${rest.template.concurrency-limit.initial:20}")
+    int initialConcurrencyLimit = 20;
+
+    @Value("${rest.template.concurrency-limit.min:1}")
+    int minConcurrencyLimit = 1;
+
+    @Value("${rest.template.concurrency-limit.max:200}")
+    int maxConcurrencyLimit = 200;
+
+    @Value("${rest.template.concurrency-limit.latency-threshold:500ms}")
+    Duration concurrencyLimitLatencyThreshold = Duration.ofMillis(500);
+
+    @Value("${rest.template.concurrency-limit.max-wait:0s}")
+    Duration concurrencyLimitMaxWait = Duration.ZERO;
+
     @Bean
+    @Lazy
     OAuth2AuthorizedClientManager auth2AuthorizedClientManager(ClientRegistrationRepository clientRegistrationRepository,
                                                                OAuth2AuthorizedClientService authorizedClientService){
         OAuth2AuthorizedClientProvider clientProvider = OAuth2AuthorizedClientProviderBuilder.builder()
@@ -30,14 +189,286 @@ public class RestTemplateBuilderConfig {
         return clientManager;
     }
 
+    @Bean
+    @Lazy
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "apache", matchIfMissing = true)
+    PoolingHttpClientConnectionManager poolingConnectionManager() {
+        return connectionManager(maxTotalConnections, maxConnectionsPerRoute);
+    }
+
+    PoolingHttpClientConnectionManager connectionManager(int maxTotal, int maxPerRoute) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(connectTimeout))
+                        .setSocketTimeout(timeout(readTimeout))
+                        .build())
+                .build();
+    }
+
+    /**
+     * The client runs its own idle connection evictor, started and stopped with the client, so that
+     * it is only started once the client is first used.
+     */
+    @Bean
+    @Lazy
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "apache", matchIfMissing = true)
+    CloseableHttpClient pooledHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        return pooledHttpClientBuilder(metricsEnabled || tracingEnabled
+                ? new MeteredConnectionManager(connectionManager, metricsEnabled ? meterRegistry(meterRegistry) : null)
+                : connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+                .build();
+    }
+
+    CloseableHttpClient createPooledHttpClient(HttpClientConnectionManager connectionManager) {
+        return pooledHttpClientBuilder(connectionManager).build();
+    }
+
+    private HttpClientBuilder pooledHttpClientBuilder(HttpClientConnectionManager connectionManager) {
+        // decompression is left to GzipClientHttpRequestInterceptor, the same as for the JDK transport
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAlive))
+                .setRetryStrategy(IO_RETRY_STRATEGY)
+                .setDefaultRequestConfig(requestConfig(readTimeout, connectTimeout))
+                .disableContentCompression();
+    }
+
+    static ConnectionKeepAliveStrategy keepAliveStrategy(Duration maxKeepAlive) {
+        TimeValue max = TimeValue.ofMilliseconds(maxKeepAlive.toMillis());
+        return (response, context) -> max.min(DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context));
+    }
+
+    @Bean
+    @Lazy
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "apache", matchIfMissing = true)
+    ClientHttpRequestFactory pooledRequestFactory(CloseableHttpClient pooledHttpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(pooledHttpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> deadlineHttpContext());
+        return requestFactory;
+    }
+
+    /**
+     * Caps the timeouts of a request made under a {@link Deadline} to the time remaining. Returns
+     * {@code null} without a deadline, leaving the client defaults in place.
+     */
+    HttpContext deadlineHttpContext() {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return null;
+        }
+
+        Duration remaining = deadline.remaining();
+        Duration read = deadline.getReadTimeout() != null ? deadline.getReadTimeout() : readTimeout;
+
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig(min(read, remaining), min(connectTimeout, remaining)));
+        return context;
+    }
+
+    private static RequestConfig requestConfig(Duration responseTimeout, Duration connectionRequestTimeout) {
+        return RequestConfig.custom()
+                .setResponseTimeout(timeout(responseTimeout))
+                .setConnectionRequestTimeout(timeout(connectionRequestTimeout))
+                .build();
+    }
+
+    private static Timeout timeout(Duration duration) {
+        // a zero timeout means none to HttpClient, an exhausted budget gets the shortest one instead
+        return Timeout.ofMilliseconds(Math.max(1, duration.toMillis()));
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    @Bean
+    @Lazy
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "jdk")
+    HttpClient jdkHttpClient() {
+        return createJdkHttpClient(connectTimeout);
+    }
+
+    static HttpClient createJdkHttpClient() {
+        return createJdkHttpClient(DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    static HttpClient createJdkHttpClient(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    @Lazy
+    @ConditionalOnProperty(name = TRANSPORT_PROPERTY, havingValue = "jdk")
+    ClientHttpRequestFactory jdkRequestFactory(HttpClient jdkHttpClient) {
+        return createJdkRequestFactory(jdkHttpClient, readTimeout, maxStreamsPerHost);
+    }
+
+    static ClientHttpRequestFactory createJdkRequestFactory(HttpClient httpClient, Duration readTimeout,
+                                                            int maxStreamsPerHost) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return new InterceptingClientHttpRequestFactory(requestFactory,
+                List.of(new HostStreamLimitInterceptor(maxStreamsPerHost)));
+    }
+
     @Bean
     RestTemplateBuilder restTemplateBuilder(RestTemplateBuilderConfigurer configurer,
-                                            OAuthClientInterceptor interceptor) {
+                                            OAuthClientInterceptor interceptor,
+                                            ObjectProvider<ClientHttpRequestFactory> requestFactory,
+                                            ObjectProvider<BeerClientTracer> tracer,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
 
         assert rootUrl != null;
 
-        return configurer.configure(new RestTemplateBuilder())
-                .additionalInterceptors(interceptor)
-                .uriTemplateHandler(new DefaultUriBuilderFactory(rootUrl));
+        MeterRegistry registry = meterRegistry(meterRegistry);
+        if (metricsEnabled) {
+            interceptor.setMeterRegistry(registry);
+        }
+
+        RestTemplateBuilder builder = configurer.configure(new RestTemplateBuilder());
+        BeerClientTracer beerClientTracer = tracer.getIfAvailable();
+        if (beerClientTracer != null) {
+            // first, so that the trace covers the token fetch and the connection lease
+            builder = builder.additionalInterceptors(new TracingClientHttpRequestInterceptor(beerClientTracer));
+        }
+
+        return configure(builder, rootUrl,
+                new LazyClientHttpRequestFactory(requestFactory::getObject), interceptor,
+                concurrencyLimitEnabled ? concurrencyLimitInterceptor(registry) : null, registry);
+    }
+
+    /**
+     * Points the builder at a beer service and adds the interceptor chain; shared by the default
+     * client and the tenants of {@link TenantBeerClientFactory}. The limiter is optional.
+     */
+    RestTemplateBuilder configure(RestTemplateBuilder builder, String rootUrl, ClientHttpRequestFactory requestFactory,
+                                  OAuthClientInterceptor interceptor, AdaptiveConcurrencyLimitInterceptor limiter,
+                                  MeterRegistry registry) {
+        builder = builder
+                .requestFactory(() -> requestFactory)
+                .uriTemplateHandler(new DefaultUriBuilderFactory(rootUrl))
+                .additionalInterceptors(new DeadlineClientHttpRequestInterceptor(deadlineMinRemaining));
+
+        builder = builder.additionalInterceptors(interceptor);
+
+        if (limiter != null) {
+            builder = builder.additionalInterceptors(limiter);
+        }
+
+        if (compressionEnabled) {
+            builder = builder.additionalInterceptors(new GzipClientHttpRequestInterceptor());
+        }
+
+        if (wireFormat != WireFormat.JSON) {
+            builder = builder.additionalCustomizers(wireFormatCustomizer(wireFormat));
+        }
+
+        if (metricsEnabled) {
+            builder = builder.additionalInterceptors(new MetricsClientHttpRequestInterceptor(registry))
+                    .additionalCustomizers(restTemplate -> restTemplate.getMessageConverters().replaceAll(
+                            converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class
+                                    ? timedJsonConverter((MappingJackson2HttpMessageConverter) converter, registry)
+                                    : converter));
+        }
+
+        return builder;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rest.template.tracing.enabled", havingValue = "true")
+    BeerClientTracer beerClientTracer() {
+        return new BeerClientTracer(slowCallThreshold, slowCallSampleRate);
+    }
+
+    /**
+     * Runs in the background, so that the application's own runners are not held up.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rest.template.warm-up.enabled", havingValue = "true")
+    ApplicationRunner beerClientWarmUp(ObjectProvider<ClientHttpRequestFactory> requestFactory,
+                                       OAuthClientInterceptor interceptor) {
+        return args -> Thread.ofVirtual().name("beer-client-warm-up").start(() -> {
+            try {
+                requestFactory.getObject();
+                interceptor.warmUp().join();
+            } catch (RuntimeException e) {
+                log.warn("Beer client warm-up failed, the first request sets the client up instead", e);
+            }
+        });
+    }
+
+    AdaptiveConcurrencyLimitInterceptor concurrencyLimitInterceptor(MeterRegistry registry) {
+        AdaptiveConcurrencyLimitInterceptor limiter = new AdaptiveConcurrencyLimitInterceptor(initialConcurrencyLimit,
+                minConcurrencyLimit, maxConcurrencyLimit, concurrencyLimitLatencyThreshold, concurrencyLimitMaxWait);
+        // the limit is exposed even without rest.template.metrics.enabled, the gauges cost nothing per call
+        limiter.setMeterRegistry(registry);
+        return limiter;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "rest.template.multi-tenant")
+    TenantProperties tenantProperties() {
+        return new TenantProperties();
+    }
+
+    /**
+     * Tenants always use the pooled Apache transport, whatever {@code rest.template.transport} says,
+     * as a pool of their own is what keeps one tenant from starving the others of connections.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "rest.template.multi-tenant", name = "enabled", havingValue = "true")
+    TenantBeerClientFactory tenantBeerClientFactory(TenantProperties tenantProperties,
+                                                    RestTemplateBuilderConfigurer configurer,
+                                                    ObjectProvider<OAuth2AuthorizedClientManager> authorizedClientManager,
+                                                    ClientRegistrationRepository clientRegistrationRepository,
+                                                    TimeoutProperties timeoutProperties,
+                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TenantBeerClientFactory(tenantProperties, this, () -> configurer.configure(new RestTemplateBuilder()),
+                authorizedClientManager::getObject, clientRegistrationRepository, timeoutProperties,
+                meterRegistry(meterRegistry));
+    }
+
+    /**
+     * The adaptive limiter of a tenant, within the tenant's own maximum and tagged with its id.
+     */
+    AdaptiveConcurrencyLimitInterceptor tenantConcurrencyLimitInterceptor(String tenantId, int maxConcurrentRequests,
+                                                                          MeterRegistry registry) {
+        AdaptiveConcurrencyLimitInterceptor limiter = new AdaptiveConcurrencyLimitInterceptor(
+                Math.min(initialConcurrencyLimit, maxConcurrentRequests),
+                Math.min(minConcurrencyLimit, maxConcurrentRequests), maxConcurrentRequests,
+                concurrencyLimitLatencyThreshold, concurrencyLimitMaxWait);
+        limiter.setMeterRegistry(registry, Tags.of("tenant", tenantId));
+        return limiter;
+    }
+
+    /**
+     * Puts the converter of the wire format in front of the JSON converter it is derived from.
+     */
+    static RestTemplateCustomizer wireFormatCustomizer(WireFormat wireFormat) {
+        return restTemplate -> restTemplate.getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .findFirst()
+                .map(converter -> wireFormat.converter(((MappingJackson2HttpMessageConverter) converter).getObjectMapper()))
+                .ifPresent(converter -> restTemplate.getMessageConverters().add(0, converter));
+    }
+
+    private static TimedJsonHttpMessageConverter timedJsonConverter(MappingJackson2HttpMessageConverter converter,
+                                                                    MeterRegistry registry) {
+        TimedJsonHttpMessageConverter timedConverter = new TimedJsonHttpMessageConverter(converter.getObjectMapper(), registry);
+        timedConverter.setSupportedMediaTypes(converter.getSupportedMediaTypes());
+        return timedConverter;
+    }
+
+    static MeterRegistry meterRegistry(ObjectProvider<MeterRegistry> meterRegistry) {
+        return meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
     }
 }
@@ -0,0 +1,220 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.client.DeadlineBeerClient;
+import guru.springframework.spring6resttemplate.client.DelegatingBeerClient;
+import guru.springframework.spring6resttemplate.client.TimeoutProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Hands out a {@link BeerClient} per tenant of {@link TenantProperties}. A tenant gets its own
+ * connection pool, OAuth token cache and adaptive concurrency limit, so a tenant using up its
+ * connections or its limit leaves the others untouched. Tenants are created on first use, reused,
+ * and released once idle for {@link TenantProperties#getIdleTimeout()}.
+ * <p>
+ * Clients are decorated with per-operation deadlines only; caching, resilience and hedging stay
+ * with the default client. Look the client up for each unit of work rather than holding on to it:
+ * the lookup is a map update, and a client held past the idle timeout may have been released, in
+ * which case its requests fail with an {@link IllegalStateException}.
+ * <p>
+ * A lookup and an eviction of the same tenant never interleave: both run inside the map's
+ * {@code compute} for the tenant, so a client just handed out counts as used and is not released
+ * under its caller.
+ */
+@Slf4j
+public class TenantBeerClientFactory implements AutoCloseable {
+
+    private static final int RELEASED = -1;
+
+    private final TenantProperties properties;
+    private final RestTemplateBuilderConfig transport;
+    private final Supplier<RestTemplateBuilder> builders;
+    private final Supplier<OAuth2AuthorizedClientManager> authorizedClientManager;
+    private final ClientRegistrationRepository clientRegistrationRepository;
+    private final TimeoutProperties timeoutProperties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, TenantClient> clients = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService evictor;
+    private LongSupplier nanoClock = System::nanoTime;
+
+    TenantBeerClientFactory(TenantProperties properties, RestTemplateBuilderConfig transport,
+                            Supplier<RestTemplateBuilder> builders,
+                            Supplier<OAuth2AuthorizedClientManager> authorizedClientManager,
+                            ClientRegistrationRepository clientRegistrationRepository,
+                            TimeoutProperties timeoutProperties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transport = transport;
+        this.builders = builders;
+        this.authorizedClientManager = authorizedClientManager;
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        this.timeoutProperties = timeoutProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public BeerClient forTenant(String tenantId) {
+        TenantProperties.Tenant tenant = properties.getTenants().get(tenantId);
+        if (tenant == null) {
+            throw new IllegalArgumentException("Unknown tenant " + tenantId);
+        }
+
+        TenantClient client = clients.compute(tenantId, (id, existing) -> {
+            TenantClient current = existing != null ? existing : createClient(id, tenant);
+            current.lastUsed = nanoClock.getAsLong();
+            return current;
+        });
+        return client.beerClient;
+    }
+
+    /**
+     * Ids of the tenants whose resources are currently held.
+     */
+    public Set<String> getActiveTenants() {
+        return Set.copyOf(clients.keySet());
+    }
+
+    public synchronized void start() {
+        if (evictor == null) {
+            long period = Math.max(1000, properties.getIdleTimeout().toMillis() / 2);
+            evictor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("beer-tenant-evictor").factory());
+            evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+        clients.forEach((tenantId, client) -> {
+            if (clients.remove(tenantId, client)) {
+                client.release();
+                release(tenantId, client);
+            }
+        });
+    }
+
+    /**
+     * Releases tenants idle for longer than the idle timeout and without requests in flight, and
+     * closes idle connections in the pools of the others.
+     */
+    void evictIdle() {
+        long idleTimeoutNanos = properties.getIdleTimeout().toNanos();
+        long now = nanoClock.getAsLong();
+
+        clients.forEach((tenantId, client) -> {
+            boolean[] evicted = new boolean[1];
+            clients.computeIfPresent(tenantId, (id, current) -> {
+                evicted[0] = current == client && now - current.lastUsed > idleTimeoutNanos && current.release();
+                return evicted[0] ? null : current;
+            });
+
+            if (evicted[0]) {
+                release(tenantId, client);
+            } else {
+                client.connectionManager.closeExpired();
+                client.connectionManager.closeIdle(TimeValue.ofMilliseconds(transport.idleEviction.toMillis()));
+            }
+        });
+    }
+
+    void setNanoClock(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    private void release(String tenantId, TenantClient client) {
+        log.debug("Releasing beer client of tenant {}", tenantId);
+        client.beerClient.close();
+        client.limiter.removeMeters();
+        client.httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    private TenantClient createClient(String tenantId, TenantProperties.Tenant tenant) {
+        if (tenant.getRootUrl() == null || tenant.getRegistrationId() == null) {
+            throw new IllegalStateException("Tenant " + tenantId + " needs a root-url and a registration-id");
+        }
+
+        OAuthClientInterceptor oauth = new OAuthClientInterceptor(authorizedClientManager.get(),
+                clientRegistrationRepository, tenant.getRegistrationId());
+        PoolingHttpClientConnectionManager connectionManager = transport.connectionManager(
+                tenant.getMaxConnections(), tenant.getMaxConnections());
+        CloseableHttpClient httpClient = transport.createPooledHttpClient(connectionManager);
+        AdaptiveConcurrencyLimitInterceptor limiter = transport.tenantConcurrencyLimitInterceptor(tenantId,
+                tenant.getMaxConcurrentRequests(), meterRegistry);
+
+        TenantClient client = new TenantClient(connectionManager, httpClient, limiter);
+        RestTemplateBuilder builder = transport.configure(builders.get().additionalInterceptors(client),
+                tenant.getRootUrl(), transport.pooledRequestFactory(httpClient), oauth, limiter, meterRegistry);
+        client.beerClient = new DeadlineBeerClient(new BeerClientImpl(builder), timeoutProperties);
+
+        log.debug("Created beer client of tenant {} for {}", tenantId, tenant.getRootUrl());
+        return client;
+    }
+
+    /**
+     * The resources of one tenant. As the first interceptor it tracks the requests in flight, so
+     * that a tenant is not released in the middle of a slow call. Once released, the count stays at
+     * {@code RELEASED} and new requests are refused rather than sent to a closed pool.
+     */
+    private final class TenantClient implements ClientHttpRequestInterceptor {
+
+        final PoolingHttpClientConnectionManager connectionManager;
+        final CloseableHttpClient httpClient;
+        final AdaptiveConcurrencyLimitInterceptor limiter;
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        DelegatingBeerClient beerClient;
+        volatile long lastUsed;
+
+        TenantClient(PoolingHttpClientConnectionManager connectionManager, CloseableHttpClient httpClient,
+                     AdaptiveConcurrencyLimitInterceptor limiter) {
+            this.connectionManager = connectionManager;
+            this.httpClient = httpClient;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+            if (inFlight.getAndUpdate(count -> count == RELEASED ? RELEASED : count + 1) == RELEASED) {
+                throw new IllegalStateException("Beer client was released after being idle, look it up again");
+            }
+            try {
+                return execution.execute(request, body);
+            } finally {
+                lastUsed = nanoClock.getAsLong();
+                inFlight.decrementAndGet();
+            }
+        }
+
+        /**
+         * Marks the client released, unless a request is in flight.
+         */
+        boolean release() {
+            return inFlight.compareAndSet(0, RELEASED);
+        }
+    }
+}
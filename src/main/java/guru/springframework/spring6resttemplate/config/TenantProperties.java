@@ -0,0 +1,43 @@
+package guru.springframework.spring6resttemplate.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Beer service deployments called with credentials of their own, keyed by tenant id, e.g.
+ * {@code rest.template.multi-tenant.tenants.acme.root-url} and
+ * {@code rest.template.multi-tenant.tenants.acme.registration-id}. The registration is a Spring
+ * Security OAuth2 client registration.
+ */
+@Data
+public class TenantProperties {
+
+    /**
+     * Tenants without requests for this long have their pool and token cache released; they are
+     * created again on their next request.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+    @Data
+    public static class Tenant {
+
+        private String rootUrl;
+
+        private String registrationId;
+
+        /**
+         * Size of the tenant's connection pool, which has a single route.
+         */
+        private int maxConnections = 20;
+
+        /**
+         * Upper bound of the tenant's adaptive concurrency limit.
+         */
+        private int maxConcurrentRequests = 20;
+    }
+}
@@ -0,0 +1,54 @@
+package guru.springframework.spring6resttemplate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON converter timing every read as {@value #DECODE_METRIC}, tagged with the target type. The
+ * time includes reading the rest of the response body off the connection.
+ */
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public static final String DECODE_METRIC = "beer.client.json.decode";
+
+    private final MeterRegistry meterRegistry;
+
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            record(type, start);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.readInternal(clazz, inputMessage);
+        } finally {
+            record(clazz, start);
+        }
+    }
+
+    private void record(Type type, long start) {
+        Timer.builder(DECODE_METRIC)
+                .tag("type", type instanceof Class<?> clazz ? clazz.getSimpleName() : type.getTypeName())
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
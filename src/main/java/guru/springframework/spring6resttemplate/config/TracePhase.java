@@ -0,0 +1,30 @@
+package guru.springframework.spring6resttemplate.config;
+
+/**
+ * The phases a traced exchange is broken down into by {@link BeerClientTracer}.
+ */
+public enum TracePhase {
+
+    /**
+     * Getting the OAuth token, near zero unless callers had to wait for a refresh.
+     */
+    TOKEN,
+
+    /**
+     * Waiting for a pooled connection and connecting a new one; only measured on the pooled
+     * transport, on the JDK transport it is part of {@link #SERVER}.
+     */
+    CONNECTION,
+
+    /**
+     * The rest of the time until the response headers arrive: writing the request, the network
+     * and the server.
+     */
+    SERVER,
+
+    /**
+     * From the response headers until the response is closed, which is reading and decoding the
+     * body.
+     */
+    DECODE
+}
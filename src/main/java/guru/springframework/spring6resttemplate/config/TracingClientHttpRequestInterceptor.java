@@ -0,0 +1,101 @@
+package guru.springframework.spring6resttemplate.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Traces every exchange into a {@link BeerClientTracer}, keyed by method and URI template. Placed
+ * first, so that the token fetch of the OAuth interceptor and the connection lease of the pool
+ * are timed inside the trace; the exchange is recorded when its response is closed, after the
+ * body has been decoded. Failed exchanges are recorded without a decode phase.
+ */
+public class TracingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final BeerClientTracer tracer;
+
+    public TracingClientHttpRequestInterceptor(BeerClientTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String endpoint = request.getMethod().name() + " "
+                + MetricsClientHttpRequestInterceptor.uriTemplate(request.getURI().getPath());
+        RequestTrace trace = new RequestTrace();
+
+        long start = System.nanoTime();
+        RequestTrace previous = trace.open();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            long failed = System.nanoTime();
+            trace.set(TracePhase.SERVER, serverNanos(trace, failed - start));
+            tracer.record(endpoint, failed - start, trace.phaseNanos());
+            throw e;
+        } finally {
+            RequestTrace.restore(previous);
+        }
+
+        long headers = System.nanoTime();
+        trace.set(TracePhase.SERVER, serverNanos(trace, headers - start));
+
+        return new TracedClientHttpResponse(response, () -> {
+            long closed = System.nanoTime();
+            trace.set(TracePhase.DECODE, closed - headers);
+            tracer.record(endpoint, closed - start, trace.phaseNanos());
+        });
+    }
+
+    private static long serverNanos(RequestTrace trace, long elapsed) {
+        return Math.max(0, elapsed - trace.get(TracePhase.TOKEN) - trace.get(TracePhase.CONNECTION));
+    }
+
+    private static class TracedClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final Runnable onClose;
+        private boolean closed;
+
+        TracedClientHttpResponse(ClientHttpResponse response, Runnable onClose) {
+            this.response = response;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                onClose.run();
+            }
+            response.close();
+        }
+    }
+}
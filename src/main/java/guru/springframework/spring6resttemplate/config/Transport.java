@@ -0,0 +1,17 @@
+package guru.springframework.spring6resttemplate.config;
+
+/**
+ * HTTP engine behind the beer client, set with {@code rest.template.transport}.
+ */
+public enum Transport {
+
+    /**
+     * Pooled Apache HttpClient speaking HTTP/1.1.
+     */
+    APACHE,
+
+    /**
+     * JDK {@link java.net.http.HttpClient}, multiplexing requests over HTTP/2.
+     */
+    JDK
+}
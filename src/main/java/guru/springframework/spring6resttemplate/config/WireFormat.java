@@ -0,0 +1,64 @@
+package guru.springframework.spring6resttemplate.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Format preferred for beer payloads, set with {@code rest.template.wire-format}. The binary
+ * formats are offered ahead of JSON in the {@code Accept} header, so a server that does not
+ * support them still answers with JSON. Request bodies are always sent as JSON, as the server
+ * cannot be asked up front which formats it reads.
+ */
+public enum WireFormat {
+
+    JSON, SMILE, CBOR;
+
+    /**
+     * Converter reading the format, sharing the configuration of the given JSON mapper, or
+     * {@code null} for JSON. It never writes, leaving request bodies to the JSON converter.
+     */
+    HttpMessageConverter<Object> converter(ObjectMapper jsonMapper) {
+        return switch (this) {
+            case JSON -> null;
+            case SMILE -> new ReadOnlyJacksonConverter(new FormatMapper(jsonMapper, new SmileFactory()),
+                    MediaType.parseMediaType("application/x-jackson-smile"));
+            case CBOR -> new ReadOnlyJacksonConverter(new FormatMapper(jsonMapper, new CBORFactory()), MediaType.APPLICATION_CBOR);
+        };
+    }
+
+    /**
+     * Copy of a mapper, modules and features included, on top of another format. Unlike
+     * {@link ObjectMapper#copyWith(JsonFactory)} it also copies subclasses such as {@code JsonMapper},
+     * which Jackson refuses to copy onto a factory of a different format.
+     */
+    private static class FormatMapper extends ObjectMapper {
+
+        FormatMapper(ObjectMapper source, JsonFactory factory) {
+            super(source, factory);
+        }
+    }
+
+    private static class ReadOnlyJacksonConverter extends AbstractJackson2HttpMessageConverter {
+
+        ReadOnlyJacksonConverter(ObjectMapper objectMapper, MediaType mediaType) {
+            super(objectMapper, mediaType);
+        }
+
+        @Override
+        public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+            return false;
+        }
+    }
+}
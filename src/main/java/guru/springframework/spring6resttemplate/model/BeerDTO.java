@@ -1,5 +1,6 @@
 package guru.springframework.spring6resttemplate.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Builder;
 import lombok.Data;
 
@@ -10,8 +11,9 @@ import java.util.UUID;
 /**
  * Created by jt, Spring Framework Guru.
  */
-@Builder
+@Builder(toBuilder = true)
 @Data
+@JsonDeserialize(using = BeerDTODeserializer.class)
 public class BeerDTO {
     private UUID id;
     private Integer version;
@@ -0,0 +1,237 @@
+package guru.springframework.spring6resttemplate.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Reads a {@link BeerDTO} straight off the token stream instead of going through bean
+ * introspection. Ids, styles, prices and ISO timestamps are parsed from the parser's character
+ * buffer, so the common case creates no intermediate {@code String}s; any other representation
+ * is handed to the regular deserializers of the context, so coercion and error reporting stay
+ * the same as before.
+ */
+public class BeerDTODeserializer extends StdDeserializer<BeerDTO> {
+
+    public BeerDTODeserializer() {
+        super(BeerDTO.class);
+    }
+
+    @Override
+    public BeerDTO deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (BeerDTO) ctxt.handleUnexpectedToken(BeerDTO.class, p);
+        }
+
+        UUID id = null;
+        Integer version = null;
+        String beerName = null;
+        BeerStyle beerStyle = null;
+        String upc = null;
+        Integer quantityOnHand = null;
+        BigDecimal price = null;
+        LocalDateTime createdDate = null;
+        LocalDateTime updateDate = null;
+
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            p.nextToken();
+
+            switch (field) {
+                case "id" -> id = readUuid(p, ctxt);
+                case "version" -> version = readInteger(p, ctxt);
+                case "beerName" -> beerName = readString(p, ctxt);
+                case "beerStyle" -> beerStyle = readBeerStyle(p, ctxt);
+                case "upc" -> upc = readString(p, ctxt);
+                case "quantityOnHand" -> quantityOnHand = readInteger(p, ctxt);
+                case "price" -> price = readPrice(p, ctxt);
+                case "createdDate" -> createdDate = readTimestamp(p, ctxt);
+                case "updateDate" -> updateDate = readTimestamp(p, ctxt);
+                default -> ctxt.handleUnknownProperty(p, this, BeerDTO.class, field);
+            }
+        }
+
+        return new BeerDTO(id, version, beerName, beerStyle, upc, quantityOnHand, price, createdDate, updateDate);
+    }
+
+    private static UUID readUuid(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+
+        if (token == JsonToken.VALUE_STRING) {
+            UUID uuid = parseUuid(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (uuid != null) {
+                return uuid;
+            }
+        } else if (token == JsonToken.VALUE_EMBEDDED_OBJECT) {
+            // Smile and CBOR write UUIDs as 16 raw bytes
+            byte[] bytes = p.getBinaryValue();
+            if (bytes.length == 16) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                return new UUID(buffer.getLong(), buffer.getLong());
+            }
+        } else if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return ctxt.readValue(p, UUID.class);
+    }
+
+    private static Integer readInteger(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT -> p.getIntValue();
+            case VALUE_NULL -> null;
+            default -> ctxt.readValue(p, Integer.class);
+        };
+    }
+
+    private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_STRING -> p.getText();
+            case VALUE_NULL -> null;
+            default -> ctxt.readValue(p, String.class);
+        };
+    }
+
+    private static BeerStyle readBeerStyle(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_STRING) {
+            BeerStyle style = BeerStyle.fromChars(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (style != null) {
+                return style;
+            }
+            return (BeerStyle) ctxt.handleWeirdStringValue(BeerStyle.class, p.getText(), "not one of the beer styles");
+        }
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return ctxt.readValue(p, BeerStyle.class);
+    }
+
+    private static BigDecimal readPrice(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getDecimalValue();
+            case VALUE_NULL -> null;
+            default -> ctxt.readValue(p, BigDecimal.class);
+        };
+    }
+
+    private static LocalDateTime readTimestamp(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+
+        if (token == JsonToken.VALUE_STRING) {
+            LocalDateTime timestamp = parseTimestamp(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (timestamp != null) {
+                return timestamp;
+            }
+        } else if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        // e.g. a zone suffix, or the array form written with WRITE_DATES_AS_TIMESTAMPS
+        return ctxt.readValue(p, LocalDateTime.class);
+    }
+
+    /**
+     * Parses the canonical {@code 8-4-4-4-12} hex form, or returns {@code null} for anything else.
+     */
+    static UUID parseUuid(char[] buffer, int offset, int length) {
+        if (length != 36) {
+            return null;
+        }
+
+        long mostSignificant = 0;
+        long leastSignificant = 0;
+        int digits = 0;
+
+        for (int i = 0; i < 36; i++) {
+            char c = buffer[offset + i];
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return null;
+                }
+                continue;
+            }
+
+            int value = Character.digit(c, 16);
+            if (value < 0) {
+                return null;
+            }
+            if (digits++ < 16) {
+                mostSignificant = (mostSignificant << 4) | value;
+            } else {
+                leastSignificant = (leastSignificant << 4) | value;
+            }
+        }
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]} with a four digit year, the shape Jackson
+     * writes local timestamps in, or returns {@code null} for anything else.
+     */
+    static LocalDateTime parseTimestamp(char[] buffer, int offset, int length) {
+        if (length < 16 || buffer[offset + 4] != '-' || buffer[offset + 7] != '-'
+                || buffer[offset + 10] != 'T' || buffer[offset + 13] != ':') {
+            return null;
+        }
+
+        int year = digits(buffer, offset, 4);
+        int month = digits(buffer, offset + 5, 2);
+        int day = digits(buffer, offset + 8, 2);
+        int hour = digits(buffer, offset + 11, 2);
+        int minute = digits(buffer, offset + 14, 2);
+        int second = 0;
+        int nano = 0;
+
+        int position = 16;
+        if (position < length) {
+            if (length < 19 || buffer[offset + 16] != ':') {
+                return null;
+            }
+            second = digits(buffer, offset + 17, 2);
+            position = 19;
+        }
+        if (position < length) {
+            int fractionDigits = length - 20;
+            if (buffer[offset + 19] != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                return null;
+            }
+            nano = digits(buffer, offset + 20, fractionDigits);
+            for (int i = fractionDigits; i < 9 && nano >= 0; i++) {
+                nano *= 10;
+            }
+        }
+
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Value of {@code count} decimal digits, or {@code -1} when one of them is not a digit.
+     */
+    private static int digits(char[] buffer, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            char c = buffer[offset + i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
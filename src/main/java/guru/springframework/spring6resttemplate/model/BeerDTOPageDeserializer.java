@@ -0,0 +1,71 @@
+package guru.springframework.spring6resttemplate.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a {@link BeerDTOPageImpl} from the token stream, handing the elements to a shared
+ * {@link BeerDTODeserializer} directly. Paging metadata other than {@code number}, {@code size}
+ * and {@code totalElements} is skipped without being bound. {@code null} elements are skipped, as
+ * they are when the page is streamed.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class BeerDTOPageDeserializer extends StdDeserializer<BeerDTOPageImpl> {
+
+    private final BeerDTODeserializer beerDeserializer = new BeerDTODeserializer();
+
+    public BeerDTOPageDeserializer() {
+        super(BeerDTOPageImpl.class);
+    }
+
+    @Override
+    public BeerDTOPageImpl deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (BeerDTOPageImpl) ctxt.handleUnexpectedToken(BeerDTOPageImpl.class, p);
+        }
+
+        List<BeerDTO> content = List.of();
+        int number = 0;
+        int size = 0;
+        long totalElements = 0;
+
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.currentName();
+            token = p.nextToken();
+
+            switch (field) {
+                case "content" -> content = readContent(p, ctxt);
+                case "number" -> number = token == JsonToken.VALUE_NUMBER_INT ? p.getIntValue() : ctxt.readValue(p, int.class);
+                case "size" -> size = token == JsonToken.VALUE_NUMBER_INT ? p.getIntValue() : ctxt.readValue(p, int.class);
+                case "totalElements" -> totalElements = token == JsonToken.VALUE_NUMBER_INT
+                        ? p.getLongValue() : ctxt.readValue(p, long.class);
+                default -> p.skipChildren();
+            }
+        }
+
+        return new BeerDTOPageImpl(content, number, size, totalElements);
+    }
+
+    private List<BeerDTO> readContent(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            return (List<BeerDTO>) ctxt.handleUnexpectedToken(List.class, p);
+        }
+
+        List<BeerDTO> content = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() != JsonToken.VALUE_NULL) {
+                content.add(beerDeserializer.deserialize(p, ctxt));
+            }
+        }
+        return content;
+    }
+}
@@ -1,8 +1,28 @@
 package guru.springframework.spring6resttemplate.model;
 
+import java.util.Arrays;
+
 /**
  * Created by jt, Spring Framework Guru.
  */
 public enum BeerStyle {
-    LAGER, PILSNER, STOUT, GOSE, PORTER, ALE, WHEAT, IPA, PALE_ALE, SAISON
+    LAGER, PILSNER, STOUT, GOSE, PORTER, ALE, WHEAT, IPA, PALE_ALE, SAISON;
+
+    private static final BeerStyle[] VALUES = values();
+
+    private final char[] nameChars = name().toCharArray();
+
+    /**
+     * Looks a style up by the name held in a slice of a character buffer, as exposed by a JSON
+     * parser, without creating a {@code String} for it. Returns {@code null} for an unknown name.
+     */
+    public static BeerStyle fromChars(char[] buffer, int offset, int length) {
+        for (BeerStyle style : VALUES) {
+            char[] name = style.nameChars;
+            if (name.length == length && Arrays.equals(name, 0, length, buffer, offset, offset + length)) {
+                return style;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,98 @@
+package guru.springframework.spring6resttemplate;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Starts the application against the stub server and logs, at debug level, how long the context
+ * refresh and the first request take, checking that the HTTP engine and the OAuth client are left
+ * to the first request.
+ */
+@Slf4j
+class StartupTimeTest {
+
+    StubBeerServer server;
+
+    UUID beerId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerId = server.addBeers(1).get(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testContextRefreshAndFirstRequest() {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = run()) {
+            Duration refresh = Duration.ofNanos(System.nanoTime() - start);
+
+            assertThat(context.getBeanFactory().containsSingleton("pooledHttpClient")).isFalse();
+            assertThat(context.getBeanFactory().containsSingleton("auth2AuthorizedClientManager")).isFalse();
+            assertThat(server.getTokenRequestCount()).isZero();
+
+            long firstRequestStart = System.nanoTime();
+            assertThat(context.getBean(BeerClient.class).getBeerById(beerId).getId()).isEqualTo(beerId);
+            Duration firstRequest = Duration.ofNanos(System.nanoTime() - firstRequestStart);
+
+            assertThat(context.getBeanFactory().containsSingleton("pooledHttpClient")).isTrue();
+            assertThat(server.getTokenRequestCount()).isEqualTo(1);
+
+            log.debug("Context refresh {} ms, first request {} ms", refresh.toMillis(), firstRequest.toMillis());
+        }
+    }
+
+    @Test
+    void testWarmUpPreparesTheFirstRequest() throws InterruptedException {
+        try (ConfigurableApplicationContext context = run("--rest.template.warm-up.enabled=true")) {
+            for (int i = 0; i < 100 && server.getTokenRequestCount() == 0; i++) {
+                Thread.sleep(20);
+            }
+
+            assertThat(server.getTokenRequestCount()).isEqualTo(1);
+            assertThat(context.getBeanFactory().containsSingleton("pooledHttpClient")).isTrue();
+
+            context.getBean(BeerClient.class).getBeerById(beerId);
+            assertThat(server.getTokenRequestCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testUnknownTransportFailsStartup() {
+        assertThatThrownBy(() -> run("--rest.template.transport=okhttp"))
+                .isInstanceOf(BeanCreationException.class)
+                .hasStackTraceContaining("okhttp");
+    }
+
+    private ConfigurableApplicationContext run(String... args) {
+        // command line arguments, as they take precedence over application.properties
+        return new SpringApplicationBuilder(Spring6ResttemplateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(Stream.concat(Stream.of(
+                        "--rest.template.rootUrl=" + server.getBaseUrl(),
+                        "--spring.security.oauth2.client.provider.springauth.token-uri="
+                                + server.clientRegistration().getProviderDetails().getTokenUri()), Stream.of(args))
+                        .toArray(String[]::new));
+    }
+}
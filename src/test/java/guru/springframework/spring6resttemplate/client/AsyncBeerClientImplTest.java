@@ -0,0 +1,136 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncBeerClientImplTest {
+
+    BeerClient beerClient = mock(BeerClient.class);
+
+    AsyncBeerClientImpl asyncBeerClient;
+
+    @AfterEach
+    void tearDown() {
+        asyncBeerClient.close();
+    }
+
+    @Test
+    void testLimitsRequestsInFlight() {
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        when(beerClient.getBeerById(any())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            current.decrementAndGet();
+            return BeerDTO.builder().id(invocation.getArgument(0)).build();
+        });
+
+        asyncBeerClient = new AsyncBeerClientImpl(beerClient, Executors.newVirtualThreadPerTaskExecutor(),
+                8, Duration.ofSeconds(10));
+
+        List<CompletableFuture<BeerDTO>> futures = IntStream.range(0, 100)
+                .mapToObj(i -> asyncBeerClient.getBeerById(UUID.randomUUID()))
+                .toList();
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(peak.get()).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void testDeadlineInterruptsExchange() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        when(beerClient.getBeerById(any())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return null;
+        });
+
+        asyncBeerClient = new AsyncBeerClientImpl(beerClient, Executors.newVirtualThreadPerTaskExecutor(),
+                8, Duration.ofMillis(100));
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> asyncBeerClient.getBeerById(UUID.randomUUID()).get());
+
+        assertThat(exception.getCause()).isInstanceOf(TimeoutException.class);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testCancelInterruptsExchange() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        when(beerClient.listBeers()).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return null;
+        });
+
+        asyncBeerClient = new AsyncBeerClientImpl(beerClient, Executors.newVirtualThreadPerTaskExecutor(),
+                8, Duration.ofSeconds(10));
+
+        CompletableFuture<?> future = asyncBeerClient.listBeers();
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        future.cancel(true);
+
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testCancelAbortsExchangeWithServer() throws Exception {
+        try (StubBeerServer server = StubBeerServer.start()) {
+            UUID beerId = server.addBeers(1).get(0);
+            server.setResponseDelay(Duration.ofSeconds(5));
+
+            // a single permit, so the second call can only run once the first has let go of its thread
+            asyncBeerClient = new AsyncBeerClientImpl(new BeerClientImpl(server.restTemplateBuilder()),
+                    Executors.newVirtualThreadPerTaskExecutor(), 1, Duration.ofSeconds(10));
+
+            CompletableFuture<BeerDTO> slow = asyncBeerClient.getBeerById(beerId);
+            for (int i = 0; i < 100 && server.getRequestCount() == 0; i++) {
+                Thread.sleep(10);
+            }
+            assertThat(server.getRequestCount()).isEqualTo(1);
+
+            long start = System.nanoTime();
+            slow.cancel(true);
+            server.setResponseDelay(Duration.ZERO);
+
+            assertThat(asyncBeerClient.getBeerById(beerId).get(2, TimeUnit.SECONDS).getId()).isEqualTo(beerId);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerCatalogMirrorTest {
+
+    StubBeerServer server;
+
+    BeerClientImpl beerClient;
+
+    BeerCatalogMirror mirror;
+
+    List<UUID> beerIds;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerIds = server.addBeers(30);
+        beerClient = new BeerClientImpl(server.restTemplateBuilder());
+        mirror = new BeerCatalogMirror(beerClient, Duration.ofSeconds(30), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mirror.close();
+        server.close();
+    }
+
+    @Test
+    void testFirstSyncMirrorsWholeCatalog() {
+        BeerSyncResult result = mirror.sync();
+
+        assertThat(result.full()).isTrue();
+        assertThat(result.fetched()).isEqualTo(30);
+        assertThat(result.applied()).isEqualTo(30);
+        assertThat(mirror.size()).isEqualTo(30);
+        assertThat(mirror.getWatermark()).isEqualTo(beerIds.stream()
+                .map(id -> server.getBeer(id).getUpdateDate())
+                .max(Comparator.naturalOrder())
+                .orElseThrow());
+
+        assertThat(mirror.get(beerIds.get(3))).contains(server.getBeer(beerIds.get(3)));
+        assertThat(mirror.findByStyle(BeerStyle.LAGER))
+                .extracting(BeerDTO::getId)
+                .containsExactlyInAnyOrder(beerIds.get(0), beerIds.get(10), beerIds.get(20));
+        assertThat(mirror.findByUpc("100005")).extracting(BeerDTO::getId).containsExactly(beerIds.get(5));
+    }
+
+    @Test
+    void testIncrementalSyncOnlyAppliesChanges() {
+        mirror.sync();
+
+        BeerDTO changed = beerClient.updateBeer(server.getBeer(beerIds.get(0)).toBuilder().beerStyle(BeerStyle.STOUT).build());
+        UUID created = beerClient.createBeerReturningId(BeerDTO.builder()
+                .beerName("New Beer")
+                .beerStyle(BeerStyle.GOSE)
+                .upc("999999")
+                .price(new BigDecimal("7.99"))
+                .build());
+
+        BeerSyncResult result = mirror.sync();
+
+        assertThat(result.full()).isFalse();
+        assertThat(result.applied()).isEqualTo(2);
+        // the watermark is inclusive, so the beer updated last before the first sync comes again
+        assertThat(result.fetched()).isLessThanOrEqualTo(3);
+        assertThat(mirror.size()).isEqualTo(31);
+        assertThat(mirror.get(changed.getId())).contains(changed);
+        assertThat(mirror.findByStyle(BeerStyle.LAGER)).extracting(BeerDTO::getId).doesNotContain(changed.getId());
+        assertThat(mirror.findByStyle(BeerStyle.STOUT)).extracting(BeerDTO::getId).contains(changed.getId());
+        assertThat(mirror.findByUpc("999999")).extracting(BeerDTO::getId).containsExactly(created);
+    }
+
+    @Test
+    void testAppliesOnlyChangesWhenServiceIgnoresWatermark() {
+        server.setUpdatedSinceSupported(false);
+        mirror.sync();
+
+        beerClient.updateBeer(server.getBeer(beerIds.get(7)).toBuilder().beerName("Renamed").build());
+        BeerSyncResult result = mirror.sync();
+
+        assertThat(result.fetched()).isEqualTo(30);
+        assertThat(result.applied()).isEqualTo(1);
+        assertThat(mirror.get(beerIds.get(7))).hasValueSatisfying(beer -> assertThat(beer.getBeerName()).isEqualTo("Renamed"));
+    }
+
+    @Test
+    void testOnlyFullSyncDropsDeletedBeers() {
+        mirror.sync();
+        beerClient.deleteBeer(beerIds.get(0));
+
+        assertThat(mirror.sync().removed()).isZero();
+        assertThat(mirror.get(beerIds.get(0))).isPresent();
+
+        BeerSyncResult result = mirror.fullSync();
+
+        assertThat(result.removed()).isEqualTo(1);
+        assertThat(mirror.get(beerIds.get(0))).isEmpty();
+        assertThat(mirror.findByStyle(BeerStyle.LAGER)).extracting(BeerDTO::getId).doesNotContain(beerIds.get(0));
+        assertThat(mirror.findByUpc("100000")).isEmpty();
+    }
+
+    @Test
+    void testFullSyncAgainAfterInterval() {
+        mirror.sync();
+
+        assertThat(mirror.sync().full()).isFalse();
+
+        mirror.setClock(Clock.offset(Clock.systemUTC(), Duration.ofHours(1)));
+        assertThat(mirror.sync().full()).isTrue();
+    }
+
+    @Test
+    void testQueriesReturnCopies() {
+        mirror.sync();
+
+        mirror.get(beerIds.get(1)).orElseThrow().setBeerName("Changed locally");
+
+        assertThat(mirror.get(beerIds.get(1))).hasValueSatisfying(beer -> assertThat(beer.getBeerName()).isEqualTo("Beer 1"));
+    }
+
+    @Test
+    void testEmptyCatalogLeavesWatermarkUnset() throws IOException {
+        try (StubBeerServer emptyServer = StubBeerServer.start();
+             BeerCatalogMirror emptyMirror = new BeerCatalogMirror(new BeerClientImpl(emptyServer.restTemplateBuilder()),
+                     Duration.ofSeconds(30), Duration.ofHours(1))) {
+            // a client clock running ahead would otherwise hide the beers added next
+            emptyMirror.setClock(Clock.offset(Clock.systemUTC(), Duration.ofMinutes(5)));
+
+            BeerSyncResult result = emptyMirror.sync();
+            assertThat(result.watermark()).isNull();
+            assertThat(emptyMirror.getWatermark()).isNull();
+
+            emptyServer.addBeers(2);
+            assertThat(emptyMirror.sync().full()).isTrue();
+            assertThat(emptyMirror.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testCloseDoesNotWaitForRunningSync() throws InterruptedException {
+        server.setResponseDelay(Duration.ofSeconds(5));
+        mirror.start();
+        while (server.getRequestCount() == 0) {
+            Thread.sleep(10);
+        }
+
+        long start = System.nanoTime();
+        mirror.close();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,122 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerClientBatchTest {
+
+    StubBeerServer server;
+
+    BeerClient beerClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerClient = new BeerClientImpl(server.restTemplateBuilder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testCreateBeersReturnsIdsInInputOrder() {
+        List<BeerDTO> beers = IntStream.range(0, 200)
+                .mapToObj(this::newBeer)
+                .toList();
+
+        BatchResult result = beerClient.createBeers(beers, BatchOptions.defaults().withConcurrency(8));
+
+        assertThat(result.hasFailures()).isFalse();
+        assertThat(result.items()).hasSize(200);
+        for (int i = 0; i < 200; i++) {
+            BatchItemResult item = result.items().get(i);
+            assertThat(item.index()).isEqualTo(i);
+            assertThat(server.getBeer(item.beerId()).getBeerName()).isEqualTo("Batch Beer " + i);
+        }
+        // one request per beer without read back
+        assertThat(server.getRequestCount()).isEqualTo(200);
+    }
+
+    @Test
+    void testCreateBeersWithReadBack() {
+        server.setReturnRepresentation(true);
+
+        BatchResult result = beerClient.createBeers(List.of(newBeer(0), newBeer(1)),
+                BatchOptions.defaults().withReadBack(true));
+
+        assertThat(result.items()).extracting(item -> item.beer().getBeerName())
+                .containsExactly("Batch Beer 0", "Batch Beer 1");
+        assertThat(result.items()).extracting(BatchItemResult::version).containsOnly(1);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testFailedItemsAreReportedWithoutFailingBatch() {
+        server.failNextRequests(3, 503);
+
+        BatchResult result = beerClient.createBeers(IntStream.range(0, 20).mapToObj(this::newBeer).toList(),
+                BatchOptions.defaults());
+
+        assertThat(result.items()).hasSize(20);
+        assertThat(result.failures()).hasSize(3)
+                .allSatisfy(item -> assertThat(item.failure()).isInstanceOf(HttpServerErrorException.class));
+    }
+
+    @Test
+    void testUpdatesToSameBeerAreAppliedInOrder() {
+        UUID beerId = server.addBeers(1).get(0);
+        List<BeerDTO> updates = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            updates.add(server.getBeer(beerId).toBuilder().beerName("Version " + i).build());
+        }
+
+        BatchResult result = beerClient.updateBeers(updates, BatchOptions.defaults().withConcurrency(10));
+
+        assertThat(result.items()).extracting(BatchItemResult::version)
+                .containsExactly(2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+        assertThat(server.getBeer(beerId).getBeerName()).isEqualTo("Version 10");
+    }
+
+    @Test
+    void testDeleteBeersReportsProgress() {
+        List<UUID> beerIds = server.addBeers(50);
+        List<BatchProgressListener.BatchProgress> progress = new CopyOnWriteArrayList<>();
+
+        BatchResult result = beerClient.deleteBeers(beerIds,
+                BatchOptions.defaults().withProgressListener(progress::add));
+
+        assertThat(result.hasFailures()).isFalse();
+        assertThat(result.items()).extracting(BatchItemResult::beerId).containsExactlyElementsOf(beerIds);
+        assertThat(progress).hasSize(50);
+        assertThat(progress).extracting(BatchProgressListener.BatchProgress::completed)
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, 50).boxed().toList());
+        assertThat(beerIds).allSatisfy(beerId -> assertThat(server.getBeer(beerId)).isNull());
+    }
+
+    private BeerDTO newBeer(int i) {
+        return BeerDTO.builder()
+                .beerName("Batch Beer " + i)
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc(String.valueOf(200000 + i))
+                .quantityOnHand(i)
+                .price(new BigDecimal("7.50"))
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerClientBulkLookupTest {
+
+    StubBeerServer server;
+
+    BeerClientImpl beerClient;
+
+    List<UUID> beerIds;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerIds = server.addBeers(20);
+        beerClient = new BeerClientImpl(server.restTemplateBuilder(), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerClient.close();
+        server.close();
+    }
+
+    @Test
+    void testDuplicateIdsAreFetchedOnce() {
+        List<UUID> requested = new ArrayList<>(beerIds);
+        requested.addAll(beerIds);
+        requested.addAll(beerIds.subList(0, 5));
+
+        BeerLookupResult result = beerClient.getBeersByIds(requested);
+
+        assertThat(result.beers()).hasSize(20);
+        assertThat(result.hasFailures()).isFalse();
+        assertThat(server.getRequestCount()).isEqualTo(20);
+    }
+
+    @Test
+    void testLookupsAfterCloseFail() {
+        beerClient.close();
+
+        BeerLookupResult result = beerClient.getBeersByIds(beerIds.subList(0, 3));
+
+        assertThat(result.beers()).isEmpty();
+        assertThat(result.failures()).hasSize(3)
+                .allSatisfy((beerId, failure) -> assertThat(failure).isInstanceOf(RejectedExecutionException.class));
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    @Test
+    void testFailedIdDoesNotFailBatch() {
+        UUID unknown = UUID.randomUUID();
+        List<UUID> requested = new ArrayList<>(beerIds.subList(0, 3));
+        requested.add(unknown);
+
+        BeerLookupResult result = beerClient.getBeersByIds(requested);
+
+        assertThat(result.beers()).containsOnlyKeys(beerIds.subList(0, 3));
+        assertThat(result.failures()).containsOnlyKeys(unknown);
+        assertThat(result.failures().get(unknown)).isInstanceOf(HttpClientErrorException.NotFound.class);
+    }
+
+    @Test
+    void testConcurrentCallersShareInFlightLookups() {
+        server.setResponseDelay(Duration.ofMillis(200));
+
+        CompletableFuture<BeerLookupResult> first = CompletableFuture.supplyAsync(() -> beerClient.getBeersByIds(beerIds));
+        CompletableFuture<BeerLookupResult> second = CompletableFuture.supplyAsync(() -> beerClient.getBeersByIds(beerIds));
+
+        assertThat(first.join().beers()).hasSize(20);
+        assertThat(second.join().beers()).hasSize(20);
+        assertThat(server.getRequestCount()).isLessThan(40);
+    }
+
+    @Test
+    void testErrorInLookupIsReportedAsFailure() throws Exception {
+        BeerClientImpl failingClient = new BeerClientImpl(server.restTemplateBuilder(), 4) {
+            @Override
+            public BeerDTO getBeerById(UUID beerId) {
+                throw new LinkageError("broken");
+            }
+        };
+
+        BeerLookupResult result = CompletableFuture.supplyAsync(() -> failingClient.getBeersByIds(beerIds.subList(0, 2)))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(result.beers()).isEmpty();
+        assertThat(result.failures()).containsOnlyKeys(beerIds.subList(0, 2));
+    }
+}
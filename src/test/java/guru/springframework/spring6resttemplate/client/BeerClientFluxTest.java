@@ -0,0 +1,99 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerClientFluxTest {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    StubBeerServer server;
+
+    BeerClientImpl beerClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        server.addBeers(55);
+        beerClient = new BeerClientImpl(server.restTemplateBuilder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testConcurrentPagesKeepCatalogOrder() {
+        List<UUID> expected;
+        try (Stream<BeerDTO> beers = beerClient.streamBeers(BeerFilter.all(), 10, 1)) {
+            expected = beers.map(BeerDTO::getId).toList();
+        }
+        server.setResponseDelay(Duration.ofMillis(20));
+
+        StepVerifier.create(beerClient.listBeersFlux(BeerFilter.all(), 10, 3).map(BeerDTO::getId))
+                .expectNextSequence(expected)
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(server.getRequestCount()).isEqualTo(12);
+    }
+
+    @Test
+    void testFetchesPagesOnDemand() {
+        StepVerifier.create(beerClient.listBeersFlux(BeerFilter.all(), 10, 1), 0)
+                .thenRequest(5)
+                .expectNextCount(5)
+                .then(() -> assertThat(server.getRequestCount()).isEqualTo(1))
+                .thenRequest(10)
+                .expectNextCount(10)
+                .then(() -> assertThat(server.getRequestCount()).isEqualTo(2))
+                .thenCancel()
+                .verify(TIMEOUT);
+
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testFiltersBeers() {
+        StepVerifier.create(beerClient.listBeersFlux(new BeerFilter(null, BeerStyle.LAGER, null), 2, 2))
+                .recordWith(ArrayList::new)
+                .expectNextCount(6)
+                .consumeRecordedWith(lagers -> assertThat(lagers).allMatch(beer -> beer.getBeerStyle() == BeerStyle.LAGER))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void testEmptyListingCompletesAfterOnePage() {
+        StepVerifier.create(beerClient.listBeersFlux(new BeerFilter("No such beer", null, null)))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testPageFailureEndsFluxWithError() {
+        server.failNextRequests(1, 500);
+
+        StepVerifier.create(beerClient.listBeersFlux(BeerFilter.all()))
+                .expectError(HttpServerErrorException.class)
+                .verify(TIMEOUT);
+    }
+}
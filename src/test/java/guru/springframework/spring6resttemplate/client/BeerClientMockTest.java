@@ -38,7 +38,9 @@ import org.springframework.web.util.UriComponentsBuilder;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -174,6 +176,51 @@ public class BeerClientMockTest {
         assertThat(returned.getId()).isEqualTo(dto.getId());
     }
 
+    @Test
+    void testCreateBeerReadsResponseBody() {
+        URI uri = UriComponentsBuilder.fromPath(BeerClientImpl.GET_BEER_BY_ID_PATH).build(dto.getId());
+
+        server.expect(method(HttpMethod.POST))
+                .andExpect(header("Authorization", BEARER_TEST))
+                .andExpect(header("Prefer", "return=representation"))
+                .andExpect(requestTo(URL + BeerClientImpl.GET_BEER_PATH))
+                .andRespond(withCreatedEntity(uri).body(dtoJson).contentType(MediaType.APPLICATION_JSON));
+
+        BeerDTO returned = beerClient.createBeer(dto);
+        assertThat(returned.getId()).isEqualTo(dto.getId());
+
+        server.verify();
+    }
+
+    @Test
+    void testUpdateBeerReadsResponseBody() {
+        server.expect(method(HttpMethod.PUT))
+                .andExpect(header("Authorization", BEARER_TEST))
+                .andExpect(header("Prefer", "return=representation"))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_PATH, dto.getId()))
+                .andRespond(withSuccess(dtoJson, MediaType.APPLICATION_JSON));
+
+        BeerDTO returned = beerClient.updateBeer(dto);
+        assertThat(returned.getId()).isEqualTo(dto.getId());
+
+        server.verify();
+    }
+
+    @Test
+    void testCreateBeerReturningId() {
+        URI uri = UriComponentsBuilder.fromPath(BeerClientImpl.GET_BEER_BY_ID_PATH).build(dto.getId());
+
+        server.expect(method(HttpMethod.POST))
+                .andExpect(header("Authorization", BEARER_TEST))
+                .andExpect(header("Prefer", "return=minimal"))
+                .andExpect(requestTo(URL + BeerClientImpl.GET_BEER_PATH))
+                .andRespond(withCreatedEntity(uri));
+
+        assertThat(beerClient.createBeerReturningId(dto)).isEqualTo(dto.getId());
+
+        server.verify();
+    }
+
     @Test
     void testGetBeerById() {
         mockGetOperation();
@@ -212,6 +259,42 @@ public class BeerClientMockTest {
         assertThat(dtos.getContent().size()).isGreaterThan(0);
     }
 
+    @Test
+    void testListBeersStreamingToConsumer() throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(getPage());
+
+        server.expect(method(HttpMethod.GET))
+                .andExpect(header("Authorization", BEARER_TEST))
+                .andExpect(requestTo(URL + BeerClientImpl.GET_BEER_PATH))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+
+        List<BeerDTO> received = new ArrayList<>();
+        BeerPageSummary summary = beerClient.listBeers(BeerFilter.all(), null, null, received::add);
+
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0).getBeerName()).isEqualTo("Mango Bobs");
+        assertThat(summary.number()).isEqualTo(1);
+        assertThat(summary.size()).isEqualTo(25);
+        assertThat(summary.totalElements()).isPositive();
+    }
+
+    @Test
+    void testListBeersStreamingSkipsNullElements() {
+        String payload = "{\"content\":[" + dtoJson + ",null," + dtoJson + "],"
+                + "\"number\":1,\"size\":25,\"totalElements\":2}";
+
+        server.expect(method(HttpMethod.GET))
+                .andExpect(requestTo(URL + BeerClientImpl.GET_BEER_PATH))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+
+        List<BeerDTO> received = new ArrayList<>();
+        BeerPageSummary summary = beerClient.listBeers(BeerFilter.all(), null, null, received::add);
+
+        assertThat(received).hasSize(2);
+        assertThat(summary.numberOfElements()).isEqualTo(2);
+        assertThat(summary.totalElements()).isEqualTo(2);
+    }
+
     BeerDTO getBeerDTO() {
         return BeerDTO.builder()
                 .id(UUID.randomUUID())
@@ -0,0 +1,95 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerClientStreamTest {
+
+    StubBeerServer server;
+
+    BeerClientImpl beerClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        server.addBeers(55);
+        beerClient = new BeerClientImpl(server.restTemplateBuilder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testStreamsWholeCatalogAndStopsAtLastPage() {
+        try (Stream<BeerDTO> beers = beerClient.streamBeers(BeerFilter.all(), 10, 2)) {
+            assertThat(beers.count()).isEqualTo(55);
+        }
+
+        assertThat(server.getRequestCount()).isEqualTo(6);
+    }
+
+    @Test
+    void testStreamsFilteredBeers() {
+        try (Stream<BeerDTO> beers = beerClient.streamBeers(new BeerFilter(null, BeerStyle.LAGER, null), 2, 1)) {
+            List<BeerDTO> lagers = beers.toList();
+
+            assertThat(lagers).hasSize(6);
+            assertThat(lagers).allMatch(beer -> beer.getBeerStyle() == BeerStyle.LAGER);
+        }
+    }
+
+    @Test
+    void testClosingEarlyStopsPrefetching() {
+        try (Stream<BeerDTO> beers = beerClient.streamBeers(BeerFilter.all(), 10, 2)) {
+            assertThat(beers.limit(5).count()).isEqualTo(5);
+        }
+
+        assertThat(server.getRequestCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void testClosingAbortsInFlightPageFetches() throws Exception {
+        AtomicInteger served = new AtomicInteger();
+        server.setLatency(() -> served.getAndIncrement() == 0 ? Duration.ZERO : Duration.ofSeconds(10));
+        CountDownLatch fetchesEnded = new CountDownLatch(3);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            BeerPageIterator iterator = new BeerPageIterator(pageNumber -> {
+                try {
+                    return beerClient.listBeers(null, null, null, pageNumber, 10);
+                } finally {
+                    fetchesEnded.countDown();
+                }
+            }, executor, 2);
+
+            assertThat(iterator.next()).isNotNull();
+            long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (server.getRequestCount() < 3 && System.nanoTime() < waitUntil) {
+                Thread.sleep(10);
+            }
+            assertThat(server.getRequestCount()).isEqualTo(3);
+
+            iterator.close();
+
+            assertThat(fetchesEnded.await(2, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
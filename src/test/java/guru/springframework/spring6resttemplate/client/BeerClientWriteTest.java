@@ -0,0 +1,114 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerClientWriteTest {
+
+    StubBeerServer server;
+
+    BeerClient beerClient;
+
+    UUID beerId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerId = server.addBeers(1).get(0);
+
+        beerClient = new BeerClientImpl(server.restTemplateBuilder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testCreateReadsBodyInOneRequest() {
+        server.setReturnRepresentation(true);
+
+        BeerDTO created = beerClient.createBeer(newBeer());
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getVersion()).isEqualTo(1);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testCreateFallsBackToGetWithoutBody() {
+        BeerDTO created = beerClient.createBeer(newBeer());
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testUpdateReadsBodyInOneRequest() {
+        server.setReturnRepresentation(true);
+        BeerDTO beer = server.getBeer(beerId).toBuilder().beerName("Renamed").build();
+
+        BeerDTO updated = beerClient.updateBeer(beer);
+
+        assertThat(updated.getBeerName()).isEqualTo("Renamed");
+        assertThat(updated.getVersion()).isEqualTo(2);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testUpdateFallsBackToGetWithoutBody() {
+        BeerDTO beer = server.getBeer(beerId).toBuilder().beerName("Renamed").build();
+
+        BeerDTO updated = beerClient.updateBeer(beer);
+
+        assertThat(updated.getBeerName()).isEqualTo("Renamed");
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testCreateReturningIdMakesOneRequest() {
+        UUID id = beerClient.createBeerReturningId(newBeer());
+
+        assertThat(server.getBeer(id)).isNotNull();
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testUpdateReturningVersionMakesOneRequest() {
+        BeerDTO beer = server.getBeer(beerId).toBuilder().beerName("Renamed").build();
+
+        Integer version = beerClient.updateBeerReturningVersion(beer);
+
+        assertThat(version).isEqualTo(2);
+        assertThat(server.getBeer(beerId).getBeerName()).isEqualTo("Renamed");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testVersionFromETag() {
+        assertThat(BeerClientImpl.versionFromETag("\"3\"")).isEqualTo(3);
+        assertThat(BeerClientImpl.versionFromETag("W/\"4\"")).isEqualTo(4);
+        assertThat(BeerClientImpl.versionFromETag("\"abc\"")).isNull();
+        assertThat(BeerClientImpl.versionFromETag(null)).isNull();
+    }
+
+    private BeerDTO newBeer() {
+        return BeerDTO.builder()
+                .beerName("Mango Bobs")
+                .beerStyle(BeerStyle.IPA)
+                .upc("123245")
+                .quantityOnHand(500)
+                .price(new BigDecimal("10.99"))
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriUtils;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerUriTemplatesTest {
+
+    static final String URL = "http://localhost:8080";
+
+    BeerUriTemplates uriTemplates = new BeerUriTemplates(new DefaultUriBuilderFactory(URL));
+
+    @Test
+    void testEndpointsAreExpandedAgainstRootUrl() {
+        UUID beerId = UUID.randomUUID();
+
+        assertThat(uriTemplates.beers()).isEqualTo(URI.create(URL + BeerClientImpl.GET_BEER_PATH));
+        assertThat(uriTemplates.listBeers(BeerFilter.all(), null, null)).isSameAs(uriTemplates.beers());
+        assertThat(uriTemplates.beerById(beerId))
+                .isEqualTo(new DefaultUriBuilderFactory(URL).expand(BeerClientImpl.GET_BEER_BY_ID_PATH, beerId));
+    }
+
+    @Test
+    void testAllParams() {
+        LocalDateTime updatedSince = LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000);
+
+        URI uri = uriTemplates.listBeers("Mango Bobs", BeerStyle.PALE_ALE, true, updatedSince, 2, 50);
+
+        assertThat(uri.toString()).isEqualTo(URL + BeerClientImpl.GET_BEER_PATH
+                + "?beerName=Mango%20Bobs&beerStyle=PALE_ALE&showInventory=true"
+                + "&updatedSince=2024-05-01T10:15:30.123&pageNumber=2&pageSize=50");
+        assertThat(uri.getQuery()).contains("beerName=Mango Bobs");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ALE", "Mango Bobs", "Bobs & Co", "a=b", "100%", "Bière", "#1 IPA", "a+b"})
+    void testBeerNameIsEncodedOnce(String beerName) {
+        URI uri = uriTemplates.listBeers(new BeerFilter(beerName, null, null), null, null);
+
+        assertThat(uri.getRawQuery()).isEqualTo("beerName=" + UriUtils.encode(beerName, StandardCharsets.UTF_8));
+        // as a servlet container reads it, where a bare + is a space
+        assertThat(URLDecoder.decode(uri.getRawQuery().substring("beerName=".length()), StandardCharsets.UTF_8))
+                .isEqualTo(beerName);
+    }
+
+    @Test
+    void testPlusInBeerNameIsEncoded() {
+        assertThat(uriTemplates.listBeers(new BeerFilter("a+b", null, null), null, null).getRawQuery())
+                .isEqualTo("beerName=a%2Bb");
+    }
+
+    @ParameterizedTest
+    @EnumSource(BeerStyle.class)
+    void testBeerStyleParam(BeerStyle beerStyle) {
+        assertThat(uriTemplates.listBeers(new BeerFilter(null, beerStyle, null), 1, null).getRawQuery())
+                .isEqualTo("beerStyle=" + beerStyle.name() + "&pageNumber=1");
+    }
+}
@@ -0,0 +1,166 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.client.resilience.CircuitBreaker;
+import guru.springframework.spring6resttemplate.client.resilience.ResilienceProperties;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingBeerClientTest {
+
+    StubBeerServer server;
+
+    CachingBeerClient beerClient;
+
+    UUID beerId;
+
+    UUID otherBeerId;
+
+    Clock clock = Clock.systemUTC();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        List<UUID> beerIds = server.addBeers(3);
+        beerId = beerIds.get(0);
+        otherBeerId = beerIds.get(1);
+
+        beerClient = new CachingBeerClient(new BeerClientImpl(server.restTemplateBuilder()), 100, Duration.ofSeconds(60));
+        beerClient.setClock(clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testRepeatedReadsAreServedFromCache() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(beerClient.getBeerById(beerId).getId()).isEqualTo(beerId);
+        }
+
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(beerClient.getStats()).isEqualTo(new BeerCacheStats(2, 1, 0, 1));
+    }
+
+    @Test
+    void testStaleEntryIsRevalidatedWithoutBody() {
+        BeerDTO first = beerClient.getBeerById(beerId);
+
+        beerClient.setClock(Clock.offset(clock, Duration.ofMinutes(2)));
+        BeerDTO second = beerClient.getBeerById(beerId);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(beerClient.getStats().revalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void testUpdateInvalidatesEntry() {
+        BeerDTO beer = beerClient.getBeerById(beerId);
+        beer.setBeerName("Renamed");
+
+        beerClient.updateBeer(beer);
+
+        assertThat(beerClient.getBeerById(beerId).getBeerName()).isEqualTo("Renamed");
+        assertThat(beerClient.getStats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void testReadDuringUpdateDoesNotLeaveStaleEntry() {
+        AtomicReference<CachingBeerClient> caching = new AtomicReference<>();
+        caching.set(new CachingBeerClient(new BeerClientImpl(server.restTemplateBuilder()) {
+            @Override
+            public BeerDTO updateBeer(BeerDTO beerDTO) {
+                caching.get().getBeerById(beerDTO.getId());
+                return super.updateBeer(beerDTO);
+            }
+        }, 100, Duration.ofSeconds(60)));
+
+        BeerDTO beer = caching.get().getBeerById(beerId);
+        beer.setBeerName("Renamed");
+
+        caching.get().updateBeer(beer);
+
+        assertThat(caching.get().getBeerById(beerId).getBeerName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void testReadAnsweredAfterUpdateDoesNotLeaveStaleEntry() {
+        AtomicReference<CachingBeerClient> caching = new AtomicReference<>();
+        AtomicReference<BeerDTO> update = new AtomicReference<>();
+        caching.set(new CachingBeerClient(new BeerClientImpl(server.restTemplateBuilder()) {
+            @Override
+            public ResponseEntity<BeerDTO> getBeerByIdIfNoneMatch(UUID beerId, String eTag) {
+                ResponseEntity<BeerDTO> response = super.getBeerByIdIfNoneMatch(beerId, eTag);
+                // the update runs entirely between the server answering the read and the read returning
+                if (update.get() != null) {
+                    caching.get().updateBeer(update.getAndSet(null));
+                }
+                return response;
+            }
+        }, 100, Duration.ofSeconds(60)));
+
+        BeerDTO beer = server.getBeer(beerId).toBuilder().beerName("Renamed").build();
+        update.set(beer);
+
+        assertThat(caching.get().getBeerById(beerId).getBeerName()).isNotEqualTo("Renamed");
+        assertThat(caching.get().getBeerById(beerId).getBeerName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void testCacheHitIsServedWhileBreakerIsOpen() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getDefaults().getRetry().setMaxAttempts(1);
+        properties.getDefaults().getCircuitBreaker().setSlidingWindowSize(2);
+        properties.getDefaults().getCircuitBreaker().setMinimumNumberOfCalls(2);
+        properties.getDefaults().getCircuitBreaker().setFailureRateThreshold(100);
+        ResilientBeerClient resilient = new ResilientBeerClient(new BeerClientImpl(server.restTemplateBuilder()),
+                properties);
+        CachingBeerClient caching = new CachingBeerClient(resilient, 100, Duration.ofSeconds(60));
+
+        caching.getBeerById(beerId);
+        server.failNextRequests(2, 503);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(HttpServerErrorException.class, () -> caching.getBeerById(otherBeerId));
+        }
+        assertThat(resilient.getCircuitBreaker("getBeerById").getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(caching.getBeerById(beerId).getId()).isEqualTo(beerId);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testCallersCannotModifyCachedBeer() {
+        beerClient.getBeerById(beerId).setBeerName("Changed locally");
+
+        assertThat(beerClient.getBeerById(beerId).getBeerName()).isEqualTo(server.getBeer(beerId).getBeerName());
+    }
+
+    @Test
+    void testBulkLookupUsesCachedEntries() {
+        List<UUID> beerIds = List.of(beerId, UUID.randomUUID());
+        beerClient.getBeerById(beerId);
+
+        BeerLookupResult result = beerClient.getBeersByIds(beerIds);
+
+        assertThat(result.beers()).containsOnlyKeys(beerId);
+        assertThat(result.failures()).hasSize(1);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+}
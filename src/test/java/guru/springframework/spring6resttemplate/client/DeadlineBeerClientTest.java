@@ -0,0 +1,134 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.config.DeadlineClientHttpRequestInterceptor;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeadlineBeerClientTest {
+
+    StubBeerServer server;
+
+    TimeoutProperties properties = new TimeoutProperties();
+
+    BeerClient beerClient;
+
+    UUID beerId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerId = server.addBeers(1).get(0);
+        beerClient = new DeadlineBeerClient(new BeerClientImpl(server.restTemplateBuilder()
+                .additionalInterceptors(new DeadlineClientHttpRequestInterceptor(Duration.ofMillis(50)))), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testCompositeOperationSharesOneBudget() {
+        properties.getOperations().put("createBeer", new TimeoutProperties.Operation(Duration.ofMillis(180), null));
+        server.setResponseDelay(Duration.ofMillis(150));
+
+        // the POST uses up the budget, the GET reading the beer back is not sent anymore
+        assertThrows(DeadlineExceededException.class, () -> beerClient.createBeer(BeerDTO.builder()
+                .beerName("Mango Bobs")
+                .build()));
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testOperationsWithinBudgetSucceed() {
+        properties.getOperations().put("createBeer", new TimeoutProperties.Operation(Duration.ofSeconds(5), null));
+        server.setResponseDelay(Duration.ofMillis(20));
+
+        BeerDTO created = beerClient.createBeer(BeerDTO.builder().beerName("Mango Bobs").build());
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(Deadline.current()).isNull();
+    }
+
+    @Test
+    void testCallerDeadlineWinsWhenEarlier() {
+        assertThrows(DeadlineExceededException.class,
+                () -> Deadline.after(Duration.ofMillis(10)).call(() -> beerClient.getBeerById(beerId)));
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    @Test
+    void testNestedDeadlines() {
+        Duration remaining = Deadline.after(Duration.ofMillis(500)).call(() ->
+                Deadline.after(Duration.ofSeconds(10), Duration.ofSeconds(1)).call(() -> {
+                    assertThat(Deadline.current().getReadTimeout()).isEqualTo(Duration.ofSeconds(1));
+                    return Deadline.current().remaining();
+                }));
+
+        assertThat(remaining).isLessThanOrEqualTo(Duration.ofMillis(500));
+        assertThat(Deadline.current()).isNull();
+    }
+
+    @Test
+    void testPropagatesToOtherThreads() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(1));
+        CompletableFuture<Deadline> seen = new CompletableFuture<>();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            deadline.call(() -> executor.submit(Deadline.propagate(() -> seen.complete(Deadline.current()))));
+        }
+
+        assertThat(seen.get()).isSameAs(deadline);
+    }
+
+    @Test
+    void testBulkLookupsRunUnderCallerDeadline() throws InterruptedException {
+        List<UUID> beerIds = server.addBeers(5);
+
+        BeerLookupResult result = Deadline.after(Duration.ofMillis(10)).call(() -> beerClient.getBeersByIds(beerIds));
+
+        assertThat(result.failures()).hasSize(5)
+                .allSatisfy((beerId, failure) -> assertThat(failure).isInstanceOf(DeadlineExceededException.class));
+        // give lookups that did not see the deadline time to reach the server
+        Thread.sleep(200);
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    @Test
+    void testBulkLookupWaitIsBoundedByDeadline() {
+        List<UUID> beerIds = server.addBeers(3);
+        server.setResponseDelay(Duration.ofSeconds(2));
+
+        long start = System.nanoTime();
+        BeerLookupResult result = Deadline.after(Duration.ofMillis(300)).call(() -> beerClient.getBeersByIds(beerIds));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(result.beers()).isEmpty();
+        assertThat(result.failures()).hasSize(3);
+    }
+
+    @Test
+    void testStreamPagesAreFetchedUnderDeadline() {
+        Stream<BeerDTO> beers = Deadline.after(Duration.ofMillis(10)).call(() -> beerClient.streamBeers(BeerFilter.all(), 10, 2));
+
+        try (beers) {
+            assertThrows(DeadlineExceededException.class, beers::count);
+        }
+        assertThat(server.getRequestCount()).isZero();
+    }
+}
@@ -0,0 +1,167 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.client.resilience.LatencyPercentile;
+import guru.springframework.spring6resttemplate.client.resilience.ResilienceProperties;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.LatencyProfile;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HedgingBeerClientTest {
+
+    StubBeerServer server;
+
+    ResilienceProperties.Hedging settings;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    HedgingBeerClient beerClient;
+
+    UUID beerId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerId = server.addBeers(1).get(0);
+
+        settings = new ResilienceProperties.Hedging();
+        settings.setMinDelay(Duration.ofMillis(10));
+        settings.setMaxDelay(Duration.ofMillis(50));
+        beerClient = new HedgingBeerClient(new BeerClientImpl(server.restTemplateBuilder()), settings, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerClient.close();
+        server.close();
+    }
+
+    @Test
+    void testSlowReadIsHedged() {
+        server.setLatency(slowFirstRequest(Duration.ofSeconds(2)));
+
+        long start = System.nanoTime();
+        BeerDTO beer = beerClient.getBeerById(beerId);
+
+        assertThat(beer.getId()).isEqualTo(beerId);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(hedges("sent")).isEqualTo(1);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void testFastReadIsNotHedged() {
+        // well above a read on a cold JVM, which can take longer than the delays of setUp
+        settings.setMinDelay(Duration.ofMillis(500));
+        settings.setMaxDelay(Duration.ofSeconds(1));
+        beerClient.close();
+        beerClient = new HedgingBeerClient(new BeerClientImpl(server.restTemplateBuilder()), settings, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            beerClient.getBeerById(beerId);
+        }
+        beerClient.listBeers();
+
+        assertThat(server.getRequestCount()).isEqualTo(11);
+        assertThat(hedges("sent")).isZero();
+    }
+
+    @Test
+    void testFailedHedgeDoesNotFailRead() {
+        // sets the connection up, so that the primary reaches the server ahead of the hedge
+        beerClient.getBeerById(beerId);
+        int requests = server.getRequestCount();
+        double sent = hedges("sent");
+        double won = hedges("won");
+
+        server.setLatency(slowFirstRequest(Duration.ofMillis(200)));
+        // the hedge overtakes the primary and is the one that fails
+        server.failNextRequests(1, 503);
+
+        assertThat(beerClient.getBeerById(beerId).getId()).isEqualTo(beerId);
+        assertThat(server.getRequestCount()).isEqualTo(requests + 2);
+        assertThat(hedges("sent")).isEqualTo(sent + 1);
+        assertThat(hedges("won")).isEqualTo(won);
+    }
+
+    @Test
+    void testFastFailureIsNotHedged() {
+        server.failNextRequests(1, 503);
+
+        assertThrows(HttpServerErrorException.class, () -> beerClient.getBeerById(beerId));
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testBudgetCapsHedges() {
+        settings.setBudget(new ResilienceProperties.RetryBudget(0, 0));
+        beerClient = new HedgingBeerClient(new BeerClientImpl(server.restTemplateBuilder()), settings, meterRegistry);
+        server.setResponseDelay(Duration.ofMillis(100));
+
+        for (int i = 0; i < 3; i++) {
+            beerClient.getBeerById(beerId);
+        }
+
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(hedges("sent")).isZero();
+        assertThat(hedges("budget_exhausted")).isEqualTo(3);
+    }
+
+    @Test
+    void testCancelledReadCountsAsLowerBoundInPercentile() throws InterruptedException {
+        settings.setPercentile(1.0);
+        beerClient = new HedgingBeerClient(new BeerClientImpl(server.restTemplateBuilder()), settings, meterRegistry);
+        LatencyPercentile latency = beerClient.latency("getBeerById");
+        // a full window of fast reads brings the delay down to min-delay, and the hedged read
+        // below adds the two samples that complete the next recompute interval
+        for (int i = 0; i < 1024 + 62; i++) {
+            latency.record(Duration.ofMillis(1).toNanos());
+        }
+        long hedgeDelay = beerClient.getHedgeDelayNanos("getBeerById");
+        assertThat(hedgeDelay).isEqualTo(settings.getMinDelay().toNanos());
+        server.setLatency(slowFirstRequest(Duration.ofSeconds(2)));
+
+        beerClient.getBeerById(beerId);
+
+        // the primary was cancelled once the hedge won, after at least the hedge delay
+        for (int i = 0; i < 100 && latency.getNanos() < hedgeDelay; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(latency.getNanos()).isGreaterThanOrEqualTo(hedgeDelay);
+    }
+
+    @Test
+    void testCloseStopsHedgedReads() {
+        beerClient.close();
+
+        assertThrows(RejectedExecutionException.class, () -> beerClient.getBeerById(beerId));
+    }
+
+    private static LatencyProfile slowFirstRequest(Duration latency) {
+        AtomicInteger requests = new AtomicInteger();
+        return () -> requests.getAndIncrement() == 0 ? latency : Duration.ZERO;
+    }
+
+    private double hedges(String outcome) {
+        Counter counter = meterRegistry.find(HedgingBeerClient.HEDGES_METRIC)
+                .tag("operation", "getBeerById")
+                .tag("outcome", outcome)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
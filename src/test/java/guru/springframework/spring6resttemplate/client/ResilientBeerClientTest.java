@@ -0,0 +1,215 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.client.resilience.CircuitBreaker;
+import guru.springframework.spring6resttemplate.client.resilience.ResilienceProperties;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResilientBeerClientTest {
+
+    StubBeerServer server;
+
+    ResilienceProperties properties;
+
+    UUID beerId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerId = server.addBeers(1).get(0);
+
+        properties = new ResilienceProperties();
+        properties.getDefaults().getRetry().setInitialBackoff(Duration.ofMillis(1));
+        properties.getDefaults().getRetry().setMaxBackoff(Duration.ofMillis(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testRetriesIdempotentOperation() {
+        server.failNextRequests(2, 503);
+
+        BeerDTO beer = beerClient().getBeerById(beerId);
+
+        assertThat(beer.getId()).isEqualTo(beerId);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testDoesNotRetryNonIdempotentOperation() {
+        server.failNextRequests(1, 503);
+
+        assertThrows(HttpServerErrorException.class, () -> beerClient().createBeer(BeerDTO.builder()
+                .beerName("Mango Bobs")
+                .build()));
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testDoesNotRetryClientErrors() {
+        assertThrows(HttpClientErrorException.class, () -> beerClient().getBeerById(UUID.randomUUID()));
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testRetryBudgetLimitsRetries() {
+        properties.getRetryBudget().setRatio(0);
+        properties.getRetryBudget().setMinRetriesPerSecond(1);
+        server.failNextRequests(10, 503);
+        // a fixed clock keeps both calls in the same second of the reserve
+        ResilientBeerClient beerClient = new ResilientBeerClient(new BeerClientImpl(server.restTemplateBuilder()),
+                properties, Clock.fixed(Instant.now(), ZoneOffset.UTC));
+
+        assertThrows(HttpServerErrorException.class, () -> beerClient.getBeerById(beerId));
+        assertThrows(HttpServerErrorException.class, () -> beerClient.getBeerById(beerId));
+
+        // one retry for the first call, none left for the second
+        assertThat(server.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testCircuitBreakerOpensAndRecovers() throws InterruptedException {
+        ResilienceProperties.CircuitBreaker settings = properties.getDefaults().getCircuitBreaker();
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumNumberOfCalls(4);
+        settings.setWaitDurationInOpenState(Duration.ofMillis(200));
+        settings.setPermittedCallsInHalfOpenState(1);
+        properties.getDefaults().getRetry().setMaxAttempts(1);
+        server.failNextRequests(4, 503);
+        ResilientBeerClient beerClient = beerClient();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> beerClient.getBeerById(beerId));
+        }
+        assertThrows(BeerClientRejectedException.class, () -> beerClient.getBeerById(beerId));
+        assertThat(beerClient.getCircuitBreaker("getBeerById").getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(server.getRequestCount()).isEqualTo(4);
+
+        // other operations have their own breaker
+        assertThat(beerClient.listBeers().getContent()).hasSize(1);
+
+        Thread.sleep(250);
+        assertThat(beerClient.getBeerById(beerId).getId()).isEqualTo(beerId);
+        assertThat(beerClient.getCircuitBreaker("getBeerById").getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testFailingBulkLookupOpensTheBreaker() {
+        ResilienceProperties.CircuitBreaker settings = properties.getDefaults().getCircuitBreaker();
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumNumberOfCalls(4);
+        List<UUID> beerIds = server.addBeers(4);
+        server.failNextRequests(4, 503);
+        ResilientBeerClient beerClient = beerClient();
+
+        BeerLookupResult result = beerClient.getBeersByIds(beerIds);
+
+        assertThat(result.beers()).isEmpty();
+        assertThat(result.failures()).hasSize(4);
+        assertThat(beerClient.getCircuitBreaker("getBeerById").getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThrows(BeerClientRejectedException.class, () -> beerClient.getBeersByIds(beerIds));
+        assertThrows(BeerClientRejectedException.class, () -> beerClient.getBeerById(beerId));
+        assertThat(server.getRequestCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testBulkheadRejectsExcessCalls() throws Exception {
+        properties.getBulkhead().setMaxConcurrentCalls(2);
+        server.setResponseDelay(Duration.ofMillis(500));
+        ResilientBeerClient beerClient = beerClient();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<BeerDTO> first = executor.submit(() -> beerClient.getBeerById(beerId));
+            Future<BeerDTO> second = executor.submit(() -> beerClient.getBeerById(beerId));
+            Thread.sleep(100);
+
+            long start = System.nanoTime();
+            assertThrows(BeerClientRejectedException.class, () -> beerClient.getBeerById(beerId));
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(100));
+
+            assertThat(first.get().getId()).isEqualTo(beerId);
+            assertThat(second.get().getId()).isEqualTo(beerId);
+        }
+
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectionsBelowDoNotCountForTheBreaker() {
+        ResilienceProperties.CircuitBreaker settings = properties.getDefaults().getCircuitBreaker();
+        settings.setSlidingWindowSize(2);
+        settings.setMinimumNumberOfCalls(2);
+        settings.setFailureRateThreshold(100);
+        properties.getDefaults().getRetry().setMaxAttempts(1);
+        AtomicBoolean rejecting = new AtomicBoolean();
+        ResilientBeerClient beerClient = new ResilientBeerClient(new BeerClientImpl(server.restTemplateBuilder()) {
+            @Override
+            public BeerDTO getBeerById(UUID beerId) {
+                if (rejecting.get()) {
+                    throw new BeerClientRejectedException("Concurrency limit reached");
+                }
+                return super.getBeerById(beerId);
+            }
+        }, properties);
+
+        server.failNextRequests(1, 503);
+        assertThrows(HttpServerErrorException.class, () -> beerClient.getBeerById(beerId));
+        rejecting.set(true);
+        for (int i = 0; i < 5; i++) {
+            assertThrows(BeerClientRejectedException.class, () -> beerClient.getBeerById(beerId));
+        }
+        rejecting.set(false);
+        server.failNextRequests(1, 503);
+        assertThrows(HttpServerErrorException.class, () -> beerClient.getBeerById(beerId));
+
+        assertThat(beerClient.getCircuitBreaker("getBeerById").getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void testOperationOverrideOnlyReplacesTheSettingsItSets() {
+        new Binder(new MapConfigurationPropertySource(Map.of(
+                "rest.template.resilience.operations.getBeerById.retry.max-attempts", "5")))
+                .bind("rest.template.resilience", Bindable.ofInstance(properties));
+
+        ResilienceProperties.Operation getBeerById = properties.forOperation("getBeerById");
+        assertThat(getBeerById.getRetry().getMaxAttempts()).isEqualTo(5);
+        assertThat(getBeerById.getRetry().getInitialBackoff()).isEqualTo(Duration.ofMillis(1));
+        assertThat(getBeerById.getCircuitBreaker()).isEqualTo(properties.getDefaults().getCircuitBreaker());
+        assertThat(properties.forOperation("listBeers").getRetry().getMaxAttempts()).isEqualTo(3);
+
+        server.failNextRequests(4, 503);
+        assertThat(beerClient().getBeerById(beerId).getId()).isEqualTo(beerId);
+        assertThat(server.getRequestCount()).isEqualTo(5);
+    }
+
+    private ResilientBeerClient beerClient() {
+        return new ResilientBeerClient(new BeerClientImpl(server.restTemplateBuilder()), properties);
+    }
+}
@@ -0,0 +1,182 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClientRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveConcurrencyLimitInterceptorTest {
+
+    AtomicLong nanos = new AtomicLong();
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    ClientHttpRequestExecution ok = (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+
+    @Test
+    void testGrowsWhileLimitIsUsed() throws Exception {
+        AdaptiveConcurrencyLimitInterceptor limiter = limiter(4, Duration.ofSeconds(5));
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ClientHttpRequestExecution slow = (request, body) -> {
+            maxInFlight.accumulateAndGet(limiter.getInFlight(), Math::max);
+            sleep(1);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                calls.add(executor.submit(() -> {
+                    for (int j = 0; j < 20; j++) {
+                        intercept(limiter, slow);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(limiter.getLimit());
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void testDoesNotGrowWhenLimitIsNotUsed() throws IOException {
+        AdaptiveConcurrencyLimitInterceptor limiter = limiter(10, Duration.ZERO);
+
+        for (int i = 0; i < 100; i++) {
+            intercept(limiter, ok);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void testBacksOffOnOverloadSignals() throws IOException {
+        AdaptiveConcurrencyLimitInterceptor limiter = limiter(100, Duration.ZERO);
+
+        intercept(limiter, (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        intercept(limiter, (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(limiter.getLimit()).isEqualTo(81);
+
+        intercept(limiter, (request, body) -> {
+            nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+        assertThat(limiter.getLimit()).isEqualTo(72);
+
+        assertThrows(SocketTimeoutException.class, () -> intercept(limiter, (request, body) -> {
+            throw new SocketTimeoutException();
+        }));
+        assertThat(limiter.getLimit()).isEqualTo(65);
+
+        // a 500 is a bug on the service side, not a sign of overload
+        intercept(limiter, (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(limiter.getLimit()).isEqualTo(65);
+    }
+
+    @Test
+    void testNeverDropsBelowMinimum() throws IOException {
+        AdaptiveConcurrencyLimitInterceptor limiter = new AdaptiveConcurrencyLimitInterceptor(
+                10, 2, 100, Duration.ofMillis(500), Duration.ZERO);
+
+        for (int i = 0; i < 50; i++) {
+            intercept(limiter, (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE));
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectsOverLimitAndExposesMetrics() throws IOException {
+        AdaptiveConcurrencyLimitInterceptor limiter = limiter(1, Duration.ZERO);
+
+        intercept(limiter, (request, body) -> {
+            assertThat(meterRegistry.get(AdaptiveConcurrencyLimitInterceptor.IN_FLIGHT_METRIC).gauge().value()).isEqualTo(1);
+            assertThrows(BeerClientRejectedException.class, () -> intercept(limiter, ok));
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimitInterceptor.LIMIT_METRIC).gauge().value())
+                .isEqualTo(limiter.getLimit());
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimitInterceptor.REJECTED_METRIC).counter().count()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void testQueuedCallProceedsWhenSlotFrees() throws Exception {
+        AdaptiveConcurrencyLimitInterceptor limiter = limiter(1, Duration.ofSeconds(5));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> first = executor.submit(() -> intercept(limiter, (request, body) -> {
+                holding.countDown();
+                await(release);
+                return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+            }));
+            holding.await();
+
+            Future<?> second = executor.submit(() -> intercept(limiter, ok));
+            assertThat(second.isDone()).isFalse();
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private AdaptiveConcurrencyLimitInterceptor limiter(int initialLimit, Duration maxWait) {
+        AdaptiveConcurrencyLimitInterceptor limiter = new AdaptiveConcurrencyLimitInterceptor(
+                initialLimit, 1, 100, Duration.ofMillis(500), maxWait);
+        limiter.setNanoClock(nanos::get);
+        limiter.setMeterRegistry(meterRegistry);
+        return limiter;
+    }
+
+    private static String intercept(AdaptiveConcurrencyLimitInterceptor limiter, ClientHttpRequestExecution execution) throws IOException {
+        return limiter.intercept(new MockClientHttpRequest(), new byte[0], execution).getStatusText();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
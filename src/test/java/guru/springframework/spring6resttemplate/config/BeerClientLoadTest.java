@@ -0,0 +1,192 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.stub.LatencyProfile;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the client through the production transport and OAuth interceptor against the stub
+ * server at fixed concurrency levels, and prints throughput and latency percentiles for each.
+ * It only runs when {@code load.duration} is set, and every level then runs for that many seconds
+ * after a short warm-up:
+ * <pre>
+ * ./mvnw test -Dtest=BeerClientLoadTest -Dload.duration=30
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "load.duration", matches = "\\d+")
+class BeerClientLoadTest {
+
+    static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 1));
+
+    static final Duration WARM_UP = Duration.ofMillis(250);
+
+    StubBeerServer server;
+
+    CloseableHttpClient httpClient;
+
+    BeerClient beerClient;
+
+    List<UUID> beerIds;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerIds = server.addBeers(1000);
+        server.setLatency(LatencyProfile.logNormal(Duration.ofMillis(2), Duration.ofMillis(20))
+                .withSpikes(0.001, Duration.ofMillis(100)));
+        server.setErrorRate(0.01, 503);
+        server.setMaxPageSize(100);
+
+        RestTemplateBuilderConfig config = new RestTemplateBuilderConfig();
+        config.maxTotalConnections = 100;
+        config.maxConnectionsPerRoute = 100;
+        config.keepAlive = Duration.ofSeconds(30);
+        config.idleEviction = Duration.ofSeconds(60);
+        httpClient = config.createPooledHttpClient(config.poolingConnectionManager());
+
+        ClientRegistrationRepository registrations = new InMemoryClientRegistrationRepository(server.clientRegistration());
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
+                registrations, new InMemoryOAuth2AuthorizedClientService(registrations));
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+
+        beerClient = new BeerClientImpl(server.restTemplateBuilder()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .additionalInterceptors(new OAuthClientInterceptor(manager, registrations))
+                .additionalInterceptors(new GzipClientHttpRequestInterceptor()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 8, 32, 64})
+    void testThroughputAndLatencyAtFixedConcurrency(int concurrency) throws Exception {
+        run(concurrency, WARM_UP);
+        LoadResult result = run(concurrency, DURATION);
+
+        System.out.printf("concurrency=%d requests=%d errors=%d throughput=%.0f/s p50=%.2fms p99=%.2fms p999=%.2fms%n",
+                concurrency, result.requests(), result.errors(), result.throughput(),
+                result.percentileMillis(0.5), result.percentileMillis(0.99), result.percentileMillis(0.999));
+
+        assertThat(result.requests()).isPositive();
+        // the stub fails 1% of requests, leave room for small samples
+        assertThat(result.errors()).isLessThanOrEqualTo(Math.max(10, result.requests() / 20));
+        assertThat(server.getTokenRequestCount()).isEqualTo(1);
+    }
+
+    private LoadResult run(int concurrency, Duration duration) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Future<Worker>> workers = new ArrayList<>(concurrency);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> new Worker().run(deadline)));
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long[] latencies = new long[0];
+        int errors = 0;
+        for (Future<Worker> future : workers) {
+            Worker worker = future.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            errors += worker.errors;
+        }
+
+        Arrays.sort(latencies);
+        return new LoadResult(latencies, errors, elapsed);
+    }
+
+    /**
+     * Sends a 90/10 mix of single beer lookups and page requests until the deadline, recording the
+     * latency of every successful call.
+     */
+    private class Worker {
+
+        long[] latencies = new long[1024];
+
+        int count;
+
+        int errors;
+
+        Worker run(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                try {
+                    if (random.nextInt(10) == 0) {
+                        beerClient.listBeers(null, null, null, random.nextInt(1, 11), 50);
+                    } else {
+                        beerClient.getBeerById(beerIds.get(random.nextInt(beerIds.size())));
+                    }
+                    record(System.nanoTime() - start);
+                } catch (RestClientException e) {
+                    errors++;
+                }
+            }
+            return this;
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private record LoadResult(long[] sortedLatencies, int errors, long elapsedNanos) {
+
+        int requests() {
+            return sortedLatencies.length + errors;
+        }
+
+        double throughput() {
+            return requests() / (elapsedNanos / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
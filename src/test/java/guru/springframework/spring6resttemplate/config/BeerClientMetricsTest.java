@@ -0,0 +1,92 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.client.MeteredBeerClient;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerClientMetricsTest {
+
+    StubBeerServer server;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    CloseableHttpClient httpClient;
+
+    BeerClient beerClient;
+
+    List<UUID> beerIds;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerIds = server.addBeers(5);
+
+        RestTemplateBuilderConfig config = new RestTemplateBuilderConfig();
+        config.maxTotalConnections = 10;
+        config.maxConnectionsPerRoute = 4;
+        config.keepAlive = Duration.ofSeconds(30);
+
+        httpClient = config.createPooledHttpClient(
+                new MeteredConnectionManager(config.poolingConnectionManager(), registry));
+
+        beerClient = new MeteredBeerClient(new BeerClientImpl(server.restTemplateBuilder()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .messageConverters(new TimedJsonHttpMessageConverter(StubBeerServer.objectMapper(), registry))
+                .additionalInterceptors(new MetricsClientHttpRequestInterceptor(registry))), registry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    void testRecordsOperationExchangeAndDecodeMetrics() {
+        BeerDTO beer = beerClient.getBeerById(beerIds.get(0));
+        assertThat(beer.getId()).isEqualTo(beerIds.get(0));
+
+        assertThat(registry.get(MeteredBeerClient.REQUESTS_METRIC)
+                .tags("operation", "getBeerById", "status", "2xx", "outcome", "SUCCESS")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(MetricsClientHttpRequestInterceptor.EXCHANGE_METRIC)
+                .tags("method", "GET", "uri", BeerClientImpl.GET_BEER_BY_ID_PATH, "status", "200")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(MetricsClientHttpRequestInterceptor.RESPONSE_SIZE_METRIC)
+                .summary().totalAmount()).isPositive();
+        assertThat(registry.get(TimedJsonHttpMessageConverter.DECODE_METRIC)
+                .tag("type", "BeerDTO")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(MeteredConnectionManager.POOL_WAIT_METRIC)
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTagsFailedOperationsWithStatus() {
+        assertThrows(HttpClientErrorException.class, () -> beerClient.getBeerById(UUID.randomUUID()));
+
+        assertThat(registry.get(MeteredBeerClient.REQUESTS_METRIC)
+                .tags("operation", "getBeerById", "status", "404", "outcome", "CLIENT_ERROR")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(MetricsClientHttpRequestInterceptor.EXCHANGE_METRIC)
+                .tags("method", "GET", "status", "404")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,126 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerClientTracerTest {
+
+    static final String GET_BEER = "GET " + BeerClientImpl.GET_BEER_PATH;
+    static final String GET_BEER_BY_ID = "GET " + BeerClientImpl.GET_BEER_BY_ID_PATH;
+
+    StubBeerServer server;
+
+    CloseableHttpClient httpClient;
+
+    List<UUID> beerIds;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerIds = server.addBeers(5);
+
+        RestTemplateBuilderConfig config = new RestTemplateBuilderConfig();
+        config.maxTotalConnections = 10;
+        config.maxConnectionsPerRoute = 4;
+        config.keepAlive = Duration.ofSeconds(30);
+
+        httpClient = config.createPooledHttpClient(new MeteredConnectionManager(config.poolingConnectionManager(), null));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    void testRecordsPhasesPerEndpoint() {
+        BeerClientTracer tracer = new BeerClientTracer(Duration.ofSeconds(10), 1.0);
+        BeerClient beerClient = beerClient(tracer);
+        server.setResponseDelay(Duration.ofMillis(30));
+
+        for (UUID beerId : beerIds) {
+            beerClient.getBeerById(beerId);
+        }
+        beerClient.listBeers();
+
+        Map<String, EndpointLatency> snapshot = tracer.snapshot();
+        assertThat(snapshot).containsOnlyKeys(GET_BEER, GET_BEER_BY_ID);
+
+        EndpointLatency byId = snapshot.get(GET_BEER_BY_ID);
+        assertThat(byId.total().count()).isEqualTo(5);
+        assertThat(byId.slowCalls()).isZero();
+        assertThat(byId.phases().get(TracePhase.SERVER).p50()).isGreaterThanOrEqualTo(Duration.ofMillis(25));
+        // the first call fetched the token and opened the connection, the others reused both
+        assertThat(byId.phases().get(TracePhase.TOKEN).max()).isPositive();
+        assertThat(byId.phases().get(TracePhase.CONNECTION).max()).isPositive();
+        assertThat(byId.total().max()).isGreaterThanOrEqualTo(byId.phases().get(TracePhase.SERVER).max());
+
+        assertThat(snapshot.get(GET_BEER).total().count()).isEqualTo(1);
+        assertThat(snapshot.get(GET_BEER).phases().get(TracePhase.DECODE).count()).isEqualTo(1);
+    }
+
+    @Test
+    void testSnapshotsAccumulate() {
+        BeerClientTracer tracer = new BeerClientTracer(Duration.ofSeconds(10), 1.0);
+        BeerClient beerClient = beerClient(tracer);
+
+        beerClient.getBeerById(beerIds.get(0));
+        assertThat(tracer.snapshot().get(GET_BEER_BY_ID).total().count()).isEqualTo(1);
+
+        beerClient.getBeerById(beerIds.get(1));
+        assertThat(tracer.snapshot().get(GET_BEER_BY_ID).total().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testCountsSlowAndFailedCalls() {
+        // nothing is logged at a zero sample rate, the slow calls are still counted
+        BeerClientTracer tracer = new BeerClientTracer(Duration.ofMillis(20), 0);
+        BeerClient beerClient = beerClient(tracer);
+
+        server.setResponseDelay(Duration.ofMillis(40));
+        beerClient.getBeerById(beerIds.get(0));
+        server.setResponseDelay(Duration.ZERO);
+        server.failNextRequests(1, 503);
+        assertThrows(HttpServerErrorException.class, () -> beerClient.getBeerById(beerIds.get(1)));
+
+        EndpointLatency byId = tracer.snapshot().get(GET_BEER_BY_ID);
+        assertThat(byId.total().count()).isEqualTo(2);
+        assertThat(byId.slowCalls()).isEqualTo(1);
+    }
+
+    private BeerClient beerClient(BeerClientTracer tracer) {
+        ClientRegistrationRepository registrations = new InMemoryClientRegistrationRepository(server.clientRegistration());
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
+                registrations, new InMemoryOAuth2AuthorizedClientService(registrations));
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+
+        return new BeerClientImpl(server.restTemplateBuilder()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .additionalInterceptors(new TracingClientHttpRequestInterceptor(tracer),
+                        new OAuthClientInterceptor(manager, registrations)));
+    }
+}
@@ -0,0 +1,82 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.H2cBeerServer;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdkHttp2TransportTest {
+
+    static final int MAX_STREAMS = 8;
+
+    HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = RestTemplateBuilderConfig.createJdkHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+    }
+
+    @Test
+    void testConcurrentCallsAreMultiplexed() throws Exception {
+        // far fewer streams than concurrent calls, the calls over the limit have to wait for a stream
+        try (H2cBeerServer server = H2cBeerServer.start(MAX_STREAMS)) {
+            List<UUID> beerIds = server.addBeers(20);
+            BeerClient beerClient = new BeerClientImpl(server.restTemplateBuilder()
+                    .requestFactory(() -> RestTemplateBuilderConfig.createJdkRequestFactory(httpClient,
+                            Duration.ofSeconds(10), MAX_STREAMS)));
+
+            // the first request upgrades the connection to h2c
+            beerClient.getBeerById(beerIds.get(0));
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<BeerDTO>> futures = beerIds.stream()
+                        .flatMap(id -> Stream.generate(() -> id).limit(10))
+                        .map(id -> executor.submit(() -> beerClient.getBeerById(id)))
+                        .toList();
+
+                for (Future<BeerDTO> future : futures) {
+                    assertThat(future.get().getId()).isNotNull();
+                }
+            }
+
+            assertThat(server.getRequestCount()).isEqualTo(201);
+            assertThat(server.getMaxActiveRequests()).isLessThanOrEqualTo(MAX_STREAMS);
+            assertThat(server.getProtocols()).contains("HTTP/2.0");
+            assertThat(server.getConnectionCount()).isLessThanOrEqualTo(2);
+        }
+    }
+
+    @Test
+    void testFallsBackToHttp11() throws IOException {
+        try (StubBeerServer server = StubBeerServer.start()) {
+            UUID beerId = server.addBeers(1).get(0);
+            BeerClient beerClient = new BeerClientImpl(server.restTemplateBuilder()
+                    .requestFactory(() -> new JdkClientHttpRequestFactory(httpClient)));
+
+            assertThat(beerClient.getBeerById(beerId).getId()).isEqualTo(beerId);
+            assertThat(beerClient.listBeers().getContent()).hasSize(1);
+        }
+    }
+}
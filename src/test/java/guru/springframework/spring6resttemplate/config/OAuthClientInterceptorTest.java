@@ -0,0 +1,221 @@
+package guru.springframework.spring6resttemplate.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OAuthClientInterceptorTest {
+
+    HttpServer tokenServer;
+
+    AtomicInteger tokenFetches = new AtomicInteger();
+
+    AtomicBoolean failTokenRequests = new AtomicBoolean();
+
+    volatile int expiresInSeconds = 300;
+
+    MutableClock clock = new MutableClock();
+
+    OAuthClientInterceptor interceptor;
+
+    ClientHttpRequestExecution execution = (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tokenServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        tokenServer.createContext("/oauth2/token", this::handleTokenRequest);
+        tokenServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        tokenServer.start();
+
+        ClientRegistrationRepository registrations = new InMemoryClientRegistrationRepository(ClientRegistration
+                .withRegistrationId("springauth")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("messaging-client")
+                .clientSecret("secret")
+                .tokenUri("http://localhost:" + tokenServer.getAddress().getPort() + "/oauth2/token")
+                .build());
+
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
+                registrations, new InMemoryOAuth2AuthorizedClientService(registrations));
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+
+        interceptor = new OAuthClientInterceptor(manager, registrations);
+        interceptor.setClock(clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenServer.stop(0);
+    }
+
+    @Test
+    void testBurstOfCallersFetchesTokenOnce() throws Exception {
+        int threads = 64;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    String header = null;
+                    for (int j = 0; j < 200; j++) {
+                        header = intercept();
+                    }
+                    return header;
+                }));
+            }
+            start.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("Bearer token-1");
+            }
+        }
+
+        assertThat(tokenFetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testRefreshesAheadOfExpiryInBackground() throws Exception {
+        // inside the provider's 60 second clock skew, so the manager really fetches a new token
+        expiresInSeconds = 45;
+        assertThat(intercept()).isEqualTo("Bearer token-1");
+
+        clock.advance(Duration.ofSeconds(20));
+        assertThat(intercept()).isEqualTo("Bearer token-1");
+
+        await(() -> "Bearer token-2".equals(intercept()));
+        assertThat(tokenFetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testKeepsValidTokenWhenRefreshFails() throws Exception {
+        expiresInSeconds = 45;
+        interceptor.setRefreshBackoff(Duration.ofSeconds(10));
+        assertThat(intercept()).isEqualTo("Bearer token-1");
+
+        failTokenRequests.set(true);
+        clock.advance(Duration.ofSeconds(20));
+
+        assertThat(intercept()).isEqualTo("Bearer token-1");
+        await(() -> interceptor.getLastRefreshFailure() != null);
+
+        // backing off: the current token is served without asking the server again
+        for (int i = 0; i < 10; i++) {
+            assertThat(intercept()).isEqualTo("Bearer token-1");
+        }
+        assertThat(tokenFetches.get()).isEqualTo(2);
+
+        Instant firstFailure = interceptor.getLastRefreshFailure();
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(intercept()).isEqualTo("Bearer token-1");
+        await(() -> interceptor.getLastRefreshFailure().isAfter(firstFailure));
+        assertThat(tokenFetches.get()).isEqualTo(3);
+
+        clock.advance(Duration.ofSeconds(60));
+        assertThrows(IllegalStateException.class, this::intercept);
+    }
+
+    private String intercept() throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        interceptor.intercept(request, new byte[0], execution);
+        return request.getHeaders().getFirst("Authorization");
+    }
+
+    private void await(Condition condition) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.isMet()) {
+            assertThat(System.nanoTime()).as("condition not met within 5 seconds").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    interface Condition {
+        boolean isMet() throws Exception;
+    }
+
+    private void handleTokenRequest(HttpExchange exchange) throws IOException {
+        int fetch = tokenFetches.incrementAndGet();
+
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            Thread.sleep(100);
+
+            if (failTokenRequests.get()) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            byte[] body = ("{\"access_token\":\"token-" + fetch + "\",\"token_type\":\"Bearer\",\"expires_in\":"
+                    + expiresInSeconds + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
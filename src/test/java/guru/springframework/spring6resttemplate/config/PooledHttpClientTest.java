@@ -0,0 +1,127 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.client.Deadline;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PooledHttpClientTest {
+
+    StubBeerServer server;
+
+    RestTemplateBuilderConfig config;
+
+    CloseableHttpClient httpClient;
+
+    BeerClient beerClient;
+
+    List<UUID> beerIds;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerIds = server.addBeers(10);
+
+        config = new RestTemplateBuilderConfig();
+        config.maxTotalConnections = 10;
+        config.maxConnectionsPerRoute = 4;
+        config.keepAlive = Duration.ofSeconds(30);
+        config.idleEviction = Duration.ofSeconds(60);
+
+        httpClient = config.createPooledHttpClient(config.poolingConnectionManager());
+
+        beerClient = new BeerClientImpl(server.restTemplateBuilder()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient)));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    void testKeepAliveFollowsServerTimeoutUpToConfiguredMaximum() {
+        ConnectionKeepAliveStrategy strategy = RestTemplateBuilderConfig.keepAliveStrategy(config.keepAlive);
+
+        assertThat(strategy.getKeepAliveDuration(keepAlive("timeout=5"), HttpClientContext.create()))
+                .isEqualTo(TimeValue.ofSeconds(5));
+        assertThat(strategy.getKeepAliveDuration(keepAlive("timeout=300, max=100"), HttpClientContext.create()))
+                .isEqualTo(TimeValue.ofSeconds(30));
+        assertThat(strategy.getKeepAliveDuration(keepAlive(null), HttpClientContext.create()))
+                .isEqualTo(TimeValue.ofSeconds(30));
+    }
+
+    @Test
+    void testSequentialCallsReuseOneConnection() {
+        for (int i = 0; i < 20; i++) {
+            beerClient.getBeerById(beerIds.get(i % beerIds.size()));
+        }
+        beerClient.listBeers();
+
+        assertThat(server.getRequestCount()).isEqualTo(21);
+        assertThat(server.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentCallsStayWithinPerRouteLimit() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = beerIds.stream()
+                    .<Future<?>>map(id -> executor.submit(() -> {
+                        for (int i = 0; i < 25; i++) {
+                            beerClient.getBeerById(id);
+                        }
+                    }))
+                    .toList();
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(server.getRequestCount()).isEqualTo(250);
+        assertThat(server.getConnectionCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void testReadTimeoutIsCappedToDeadline() {
+        BeerClient deadlineClient = new BeerClientImpl(server.restTemplateBuilder()
+                .requestFactory(() -> config.pooledRequestFactory(httpClient)));
+        server.setResponseDelay(Duration.ofSeconds(2));
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> Deadline.after(Duration.ofMillis(200))
+                .call(() -> deadlineClient.getBeerById(beerIds.get(0))));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    private static BasicHttpResponse keepAlive(String value) {
+        BasicHttpResponse response = new BasicHttpResponse(200);
+        if (value != null) {
+            response.addHeader("Keep-Alive", value);
+        }
+        return response;
+    }
+}
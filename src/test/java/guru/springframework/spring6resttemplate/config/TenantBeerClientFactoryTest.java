@@ -0,0 +1,218 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientRejectedException;
+import guru.springframework.spring6resttemplate.client.TimeoutProperties;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TenantBeerClientFactoryTest {
+
+    StubBeerServer acmeServer;
+
+    StubBeerServer globexServer;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    AtomicLong nanoTime = new AtomicLong();
+
+    TenantProperties properties = new TenantProperties();
+
+    TenantBeerClientFactory factory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        acmeServer = StubBeerServer.start();
+        globexServer = StubBeerServer.start();
+
+        properties.getTenants().put("acme", tenant(acmeServer, "acme"));
+        properties.getTenants().put("globex", tenant(globexServer, "globex"));
+
+        ClientRegistrationRepository registrations = new InMemoryClientRegistrationRepository(
+                registration(acmeServer, "acme"), registration(globexServer, "globex"));
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
+                registrations, new InMemoryOAuth2AuthorizedClientService(registrations));
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+
+        RestTemplateBuilderConfig config = new RestTemplateBuilderConfig();
+        config.keepAlive = Duration.ofSeconds(30);
+        config.idleEviction = Duration.ofSeconds(60);
+
+        factory = new TenantBeerClientFactory(properties, config, acmeServer::restTemplateBuilder,
+                () -> manager, registrations, new TimeoutProperties(), meterRegistry);
+        factory.setNanoClock(nanoTime::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        factory.close();
+        acmeServer.close();
+        globexServer.close();
+    }
+
+    @Test
+    void testTenantsCallTheirOwnServiceWithTheirOwnToken() {
+        UUID acmeBeer = acmeServer.addBeers(1).get(0);
+        UUID globexBeer = globexServer.addBeers(1).get(0);
+
+        assertThat(factory.forTenant("acme").getBeerById(acmeBeer).getId()).isEqualTo(acmeBeer);
+        assertThat(factory.forTenant("globex").getBeerById(globexBeer).getId()).isEqualTo(globexBeer);
+        factory.forTenant("acme").getBeerById(acmeBeer);
+
+        assertThat(factory.forTenant("acme")).isSameAs(factory.forTenant("acme"));
+        assertThat(acmeServer.getRequestCount()).isEqualTo(2);
+        assertThat(acmeServer.getTokenRequestCount()).isEqualTo(1);
+        assertThat(globexServer.getRequestCount()).isEqualTo(1);
+        assertThat(globexServer.getTokenRequestCount()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimitInterceptor.LIMIT_METRIC).gauges()).hasSize(2);
+    }
+
+    @Test
+    void testBusyTenantDoesNotStarveOthers() throws Exception {
+        properties.getTenants().get("acme").setMaxConnections(2);
+        properties.getTenants().get("acme").setMaxConcurrentRequests(2);
+        UUID acmeBeer = acmeServer.addBeers(1).get(0);
+        UUID globexBeer = globexServer.addBeers(1).get(0);
+        acmeServer.setResponseDelay(Duration.ofMillis(500));
+
+        BeerClient acme = factory.forTenant("acme");
+        BeerClient globex = factory.forTenant("globex");
+        // fetch the tokens up front, so that only the beer calls are timed
+        globex.getBeerById(globexBeer);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> acmeCalls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                acmeCalls.add(executor.submit(() -> acme.getBeerById(acmeBeer)));
+            }
+
+            long start = System.nanoTime();
+            globex.getBeerById(globexBeer);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(400));
+
+            int rejected = 0;
+            for (Future<?> call : acmeCalls) {
+                try {
+                    call.get();
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BeerClientRejectedException.class);
+                    rejected++;
+                }
+            }
+            assertThat(rejected).isPositive();
+        }
+    }
+
+    @Test
+    void testIdleTenantsAreReleasedAndCreatedAgain() {
+        UUID acmeBeer = acmeServer.addBeers(1).get(0);
+        BeerClient acme = factory.forTenant("acme");
+        acme.getBeerById(acmeBeer);
+        factory.forTenant("globex");
+
+        nanoTime.addAndGet(properties.getIdleTimeout().toNanos() / 2);
+        factory.forTenant("globex");
+        nanoTime.addAndGet(properties.getIdleTimeout().toNanos() / 2 + 1);
+        factory.evictIdle();
+
+        assertThat(factory.getActiveTenants()).containsExactly("globex");
+        assertThat(meterRegistry.find(AdaptiveConcurrencyLimitInterceptor.LIMIT_METRIC).tag("tenant", "acme").gauge()).isNull();
+
+        BeerClient recreated = factory.forTenant("acme");
+        assertThat(recreated).isNotSameAs(acme);
+        assertThat(recreated.getBeerById(acmeBeer).getId()).isEqualTo(acmeBeer);
+    }
+
+    @Test
+    void testEvictionRacingALookupLeavesTheClientUsable() throws Exception {
+        UUID acmeBeer = acmeServer.addBeers(1).get(0);
+        factory.forTenant("acme");
+
+        // the lookup reads the clock; right then, time passes the idle timeout and an eviction runs
+        Thread caller = Thread.currentThread();
+        AtomicBoolean evictOnLookup = new AtomicBoolean(true);
+        AtomicReference<Future<?>> eviction = new AtomicReference<>();
+        ExecutorService evictor = Executors.newSingleThreadExecutor();
+        factory.setNanoClock(() -> {
+            if (Thread.currentThread() == caller && evictOnLookup.compareAndSet(true, false)) {
+                nanoTime.addAndGet(properties.getIdleTimeout().toNanos() + 1);
+                eviction.set(evictor.submit(factory::evictIdle));
+                try {
+                    eviction.get().get(200, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // the eviction waits for the lookup to finish
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return nanoTime.get();
+        });
+
+        try {
+            BeerClient acme = factory.forTenant("acme");
+            eviction.get().get(5, TimeUnit.SECONDS);
+
+            assertThat(factory.getActiveTenants()).containsExactly("acme");
+            assertThat(acme.getBeerById(acmeBeer).getId()).isEqualTo(acmeBeer);
+        } finally {
+            evictor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testClientHeldPastReleaseIsRefused() {
+        BeerClient acme = factory.forTenant("acme");
+        nanoTime.addAndGet(properties.getIdleTimeout().toNanos() + 1);
+        factory.evictIdle();
+
+        assertThrows(IllegalStateException.class, () -> acme.getBeerById(UUID.randomUUID()));
+    }
+
+    @Test
+    void testUnknownTenant() {
+        assertThrows(IllegalArgumentException.class, () -> factory.forTenant("initech"));
+    }
+
+    private static TenantProperties.Tenant tenant(StubBeerServer server, String registrationId) {
+        TenantProperties.Tenant tenant = new TenantProperties.Tenant();
+        tenant.setRootUrl(server.getBaseUrl());
+        tenant.setRegistrationId(registrationId);
+        return tenant;
+    }
+
+    private static ClientRegistration registration(StubBeerServer server, String registrationId) {
+        return ClientRegistration.withClientRegistration(server.clientRegistration())
+                .registrationId(registrationId)
+                .clientId(registrationId + "-client")
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.client.BeerFilter;
+import guru.springframework.spring6resttemplate.client.BeerPageSummary;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WireFormatTest {
+
+    StubBeerServer server;
+
+    CloseableHttpClient pooledHttpClient;
+
+    List<UUID> beerIds;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StubBeerServer.start();
+        beerIds = server.addBeers(200);
+
+        RestTemplateBuilderConfig config = new RestTemplateBuilderConfig();
+        config.maxTotalConnections = 10;
+        config.maxConnectionsPerRoute = 10;
+        config.keepAlive = Duration.ofSeconds(30);
+        pooledHttpClient = config.createPooledHttpClient(config.poolingConnectionManager());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pooledHttpClient.close();
+        server.close();
+    }
+
+    @Test
+    void testGzipResponsesAreDecompressed() {
+        long plainBytes = listAllBeers(beerClient(pooledRequestFactory(), WireFormat.JSON));
+
+        server.setGzipResponses(true);
+        long gzipBytes = listAllBeers(beerClient(pooledRequestFactory(), WireFormat.JSON)) - plainBytes;
+
+        assertThat(gzipBytes).isLessThan(plainBytes / 2);
+    }
+
+    @Test
+    void testGzipWithJdkTransport() {
+        server.setGzipResponses(true);
+
+        try (HttpClient httpClient = RestTemplateBuilderConfig.createJdkHttpClient()) {
+            BeerClient beerClient = beerClient(new JdkClientHttpRequestFactory(httpClient), WireFormat.JSON);
+
+            assertThat(beerClient.getBeerById(beerIds.get(0)).getId()).isEqualTo(beerIds.get(0));
+            assertThat(beerClient.listBeers(null, null, null, 1, 200).getContent()).hasSize(200);
+        }
+    }
+
+    @Test
+    void testStreamingPageIsDecompressed() {
+        server.setGzipResponses(true);
+        List<BeerDTO> received = new ArrayList<>();
+
+        BeerPageSummary summary = beerClient(pooledRequestFactory(), WireFormat.JSON)
+                .listBeers(BeerFilter.all(), 1, 200, received::add);
+
+        assertThat(received).hasSize(200);
+        assertThat(summary.totalElements()).isEqualTo(200);
+    }
+
+    @Test
+    void testBinaryFormatsAreNegotiated() {
+        long jsonBytes = listAllBeers(beerClient(pooledRequestFactory(), WireFormat.JSON));
+
+        server.setBinaryFormats(true);
+        long smileBytes = listAllBeers(beerClient(pooledRequestFactory(), WireFormat.SMILE)) - jsonBytes;
+        long cborBytes = listAllBeers(beerClient(pooledRequestFactory(), WireFormat.CBOR)) - jsonBytes - smileBytes;
+
+        assertThat(smileBytes).isLessThan(jsonBytes);
+        assertThat(cborBytes).isLessThan(jsonBytes);
+    }
+
+    @Test
+    void testBinaryFormatFallsBackToJson() {
+        BeerClient beerClient = beerClient(pooledRequestFactory(), WireFormat.SMILE);
+
+        BeerDTO beer = beerClient.getBeerById(beerIds.get(0));
+
+        assertThat(beer).isEqualTo(server.getBeer(beerIds.get(0)));
+    }
+
+    @Test
+    void testRequestBodiesAreSentAsJson() {
+        server.setBinaryFormats(true);
+        BeerClient beerClient = beerClient(pooledRequestFactory(), WireFormat.SMILE);
+        BeerDTO beer = server.getBeer(beerIds.get(0)).toBuilder().id(null).beerName("Smile Ale").build();
+
+        BeerDTO created = beerClient.createBeer(beer);
+        created.setBeerName("Smile IPA");
+        BeerDTO updated = beerClient.updateBeer(created);
+
+        assertThat(updated.getBeerName()).isEqualTo("Smile IPA");
+        assertThat(server.getBeer(created.getId()).getBeerName()).isEqualTo("Smile IPA");
+    }
+
+    /**
+     * Reads all beers in one page and returns the total bytes the server has sent so far.
+     */
+    private long listAllBeers(BeerClient beerClient) {
+        Page<BeerDTO> page = beerClient.listBeers(null, null, null, 1, 200);
+
+        assertThat(page.getContent()).hasSize(200);
+        assertThat(page.getContent().get(0)).isEqualTo(server.getBeer(page.getContent().get(0).getId()));
+        return server.getBytesSent();
+    }
+
+    private ClientHttpRequestFactory pooledRequestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(pooledHttpClient);
+    }
+
+    private BeerClient beerClient(ClientHttpRequestFactory requestFactory, WireFormat wireFormat) {
+        RestTemplateBuilder builder = server.restTemplateBuilder()
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(new GzipClientHttpRequestInterceptor())
+                .additionalCustomizers(RestTemplateBuilderConfig.wireFormatCustomizer(wireFormat));
+
+        return new BeerClientImpl(builder);
+    }
+}
@@ -0,0 +1,132 @@
+package guru.springframework.spring6resttemplate.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import guru.springframework.spring6resttemplate.stub.StubBeerServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerDTODeserializerTest {
+
+    ObjectMapper objectMapper = StubBeerServer.objectMapper();
+
+    @Test
+    void testReadsWhatJacksonWrites() throws Exception {
+        BeerDTO beer = beer(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_789));
+
+        assertThat(objectMapper.readValue(objectMapper.writeValueAsBytes(beer), BeerDTO.class)).isEqualTo(beer);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"smile", "cbor"})
+    void testReadsBinaryFormats(String format) throws Exception {
+        ObjectMapper mapper = format.equals("smile") ? StubBeerServer.smileMapper() : StubBeerServer.cborMapper();
+        BeerDTO beer = beer(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        BeerDTOPageImpl<?> page = new BeerDTOPageImpl<>(List.of(beer, beer(null)), 2, 2, 10);
+
+        BeerDTOPageImpl<?> read = mapper.readValue(mapper.writeValueAsBytes(page), BeerDTOPageImpl.class);
+
+        assertThat(read.getContent()).containsExactly(beer, beer(null).toBuilder().id(read.getContent().get(1).getId()).build());
+        assertThat(read.getNumber()).isEqualTo(2);
+        assertThat(read.getTotalElements()).isEqualTo(10);
+    }
+
+    @Test
+    void testSkipsNullPageElements() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        String json = """
+                {"content":[null,{"id":"%s"},null],"number":0,"size":3,"totalElements":1}
+                """.formatted(beerId);
+
+        BeerDTOPageImpl<?> page = objectMapper.readValue(json, BeerDTOPageImpl.class);
+
+        assertThat(page.getContent()).extracting(BeerDTO::getId).containsExactly(beerId);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-05-01T10:15", "2024-05-01T10:15:30", "2024-05-01T10:15:30.1", "2024-05-01T10:15:30.000000001"})
+    void testParsesIsoTimestamps(String timestamp) {
+        char[] chars = ("xx" + timestamp).toCharArray();
+
+        assertThat(BeerDTODeserializer.parseTimestamp(chars, 2, timestamp.length()))
+                .isEqualTo(LocalDateTime.parse(timestamp));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-05-01", "2024-05-01T10:15:3", "2024-05-01T10:15:30.", "2024-13-01T10:15:30", "+2024-05-01T10:15"})
+    void testLeavesOtherTimestampsToFormatter(String timestamp) {
+        assertThat(BeerDTODeserializer.parseTimestamp(timestamp.toCharArray(), 0, timestamp.length())).isNull();
+    }
+
+    @Test
+    void testParsesUuid() {
+        UUID uuid = UUID.randomUUID();
+        String text = uuid.toString().toUpperCase();
+
+        assertThat(BeerDTODeserializer.parseUuid(text.toCharArray(), 0, text.length())).isEqualTo(uuid);
+        assertThat(BeerDTODeserializer.parseUuid("not-a-uuid".toCharArray(), 0, 10)).isNull();
+    }
+
+    @Test
+    void testFallsBackToRegularDeserializers() throws Exception {
+        String json = """
+                {"id":"%s","version":"3","beerName":"Mango Bobs","beerStyle":"IPA","price":"12.99",
+                 "createdDate":[2024,5,1,10,15,30],"extra":{"nested":[1,2]},"quantityOnHand":null}
+                """.formatted(UUID.randomUUID());
+
+        BeerDTO beer = objectMapper.readValue(json, BeerDTO.class);
+
+        assertThat(beer.getVersion()).isEqualTo(3);
+        assertThat(beer.getBeerStyle()).isEqualTo(BeerStyle.IPA);
+        assertThat(beer.getPrice()).isEqualByComparingTo("12.99");
+        assertThat(beer.getCreatedDate()).isEqualTo(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        assertThat(beer.getQuantityOnHand()).isNull();
+    }
+
+    @Test
+    void testFallsBackToJavaTimeForZonedTimestamps() throws Exception {
+        BeerDTO beer = objectMapper.readValue("{\"createdDate\":\"2024-05-01T10:15:30Z\"}", BeerDTO.class);
+
+        assertThat(beer.getCreatedDate()).isEqualTo(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"createdDate\":\"yesterday\"}", BeerDTO.class));
+    }
+
+    @Test
+    void testRejectsUnknownStyle() {
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"beerStyle\":\"LAMBIC\"}", BeerDTO.class));
+    }
+
+    @Test
+    void testReadsTimestampArraysWrittenByDefaultMapper() throws Exception {
+        ObjectMapper timestamps = objectMapper.copy().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        BeerDTO beer = beer(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 500));
+
+        assertThat(objectMapper.readValue(timestamps.writeValueAsBytes(beer), BeerDTO.class)).isEqualTo(beer);
+    }
+
+    private static BeerDTO beer(LocalDateTime timestamp) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName("Mango Bobs")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("123456")
+                .quantityOnHand(200)
+                .price(new BigDecimal("12.99"))
+                .createdDate(timestamp)
+                .updateDate(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package guru.springframework.spring6resttemplate.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves {@code GET} of single beers from an embedded Tomcat that accepts h2c upgrades, so tests
+ * can observe HTTP/2 multiplexing, which the JDK {@code HttpServer} behind {@link StubBeerServer}
+ * does not support. Plain HTTP/1.1 clients are served as well.
+ */
+public class H2cBeerServer implements AutoCloseable {
+
+    private static final String BEER_PATH = BeerClientImpl.GET_BEER_PATH;
+
+    private final Tomcat tomcat = new Tomcat();
+    private final Connector connector = new Connector();
+    private final ObjectMapper objectMapper = StubBeerServer.objectMapper();
+    private final Map<UUID, BeerDTO> beers = new ConcurrentSkipListMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final Set<String> protocols = ConcurrentHashMap.newKeySet();
+
+    private H2cBeerServer(int maxConcurrentStreams) throws IOException {
+        tomcat.setBaseDir(Files.createTempDirectory("h2c-beer-server").toString());
+
+        connector.setPort(0);
+        connector.setProperty("address", "127.0.0.1");
+        Http2Protocol http2 = new Http2Protocol();
+        http2.setMaxConcurrentStreams(maxConcurrentStreams);
+        connector.addUpgradeProtocol(http2);
+        tomcat.getService().addConnector(connector);
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "beers", new BeerServlet());
+        context.addServletMappingDecoded("/*", "beers");
+    }
+
+    public static H2cBeerServer start() throws IOException {
+        return start(100);
+    }
+
+    /**
+     * Starts a server advertising the given {@code SETTINGS_MAX_CONCURRENT_STREAMS}; Tomcat's
+     * default is 100.
+     */
+    public static H2cBeerServer start(int maxConcurrentStreams) throws IOException {
+        H2cBeerServer stub = new H2cBeerServer(maxConcurrentStreams);
+        try {
+            stub.tomcat.start();
+        } catch (LifecycleException e) {
+            throw new IOException("Could not start Tomcat", e);
+        }
+        return stub;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + connector.getLocalPort();
+    }
+
+    public RestTemplateBuilder restTemplateBuilder() {
+        return new RestTemplateBuilder()
+                .messageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .uriTemplateHandler(new DefaultUriBuilderFactory(getBaseUrl()));
+    }
+
+    public List<UUID> addBeers(int count) {
+        return StubBeerServer.addBeers(beers, count);
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Number of distinct client connections seen, identified by their remote port.
+     */
+    public int getConnectionCount() {
+        return clientPorts.size();
+    }
+
+    /**
+     * Most requests that were being served at the same time.
+     */
+    public int getMaxActiveRequests() {
+        return maxActiveRequests.get();
+    }
+
+    /**
+     * Protocols of the requests served, e.g. {@code HTTP/1.1} and {@code HTTP/2.0}.
+     */
+    public Set<String> getProtocols() {
+        return protocols;
+    }
+
+    @Override
+    public void close() {
+        try {
+            tomcat.stop();
+            tomcat.destroy();
+        } catch (LifecycleException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class BeerServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            maxActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+            try {
+                serve(request, response);
+            } finally {
+                activeRequests.decrementAndGet();
+            }
+        }
+
+        private void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            requestCount.incrementAndGet();
+            clientPorts.add(request.getRemotePort());
+            protocols.add(request.getProtocol());
+
+            String path = request.getRequestURI();
+            BeerDTO beer = null;
+            if (path.startsWith(BEER_PATH + "/")) {
+                try {
+                    beer = beers.get(UUID.fromString(path.substring(BEER_PATH.length() + 1)));
+                } catch (IllegalArgumentException e) {
+                    response.sendError(400);
+                    return;
+                }
+            }
+
+            if (beer == null) {
+                response.sendError(404);
+                return;
+            }
+
+            byte[] bytes = objectMapper.writeValueAsBytes(beer);
+            response.setContentType("application/json");
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package guru.springframework.spring6resttemplate.stub;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service time added by {@link StubBeerServer} to each beer API request, sampled per request.
+ */
+@FunctionalInterface
+public interface LatencyProfile {
+
+    Duration next();
+
+    static LatencyProfile none() {
+        return () -> Duration.ZERO;
+    }
+
+    static LatencyProfile fixed(Duration latency) {
+        return () -> latency;
+    }
+
+    static LatencyProfile uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        return () -> Duration.ofNanos(ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1));
+    }
+
+    /**
+     * Log-normal latency with the given median and 99th percentile, which gives the long right
+     * tail typical of real services.
+     */
+    static LatencyProfile logNormal(Duration median, Duration p99) {
+        double mu = Math.log(median.toNanos());
+        double sigma = (Math.log(p99.toNanos()) - mu) / 2.326;
+        return () -> Duration.ofNanos((long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * This profile, except that the given fraction of requests takes {@code spike} instead, like a
+     * service with occasional GC pauses or cold caches.
+     */
+    default LatencyProfile withSpikes(double rate, Duration spike) {
+        return () -> ThreadLocalRandom.current().nextDouble() < rate ? spike : next();
+    }
+}
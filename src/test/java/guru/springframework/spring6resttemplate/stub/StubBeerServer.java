@@ -0,0 +1,538 @@
+package guru.springframework.spring6resttemplate.stub;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.config.RestTemplateBuilderConfig;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process implementation of the beer service API on top of the JDK {@link HttpServer}.
+ * Unlike {@code MockRestServiceServer} it goes through the real HTTP stack, so tests can
+ * observe connection handling of the client. For load tests the service time, error rate,
+ * catalog size and page sizes can be configured, and {@code /oauth2/token} issues client
+ * credentials tokens so the OAuth interceptor can run against it too.
+ */
+public class StubBeerServer implements AutoCloseable {
+
+    private static final String BEER_PATH = BeerClientImpl.GET_BEER_PATH;
+    private static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+    private static final String CBOR_CONTENT_TYPE = "application/cbor";
+    private static final String TOKEN_PATH = "/oauth2/token";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = objectMapper();
+    private final ObjectMapper smileMapper = smileMapper();
+    private final ObjectMapper cborMapper = cborMapper();
+    private final Map<UUID, BeerDTO> beers = new ConcurrentSkipListMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger pendingFaults = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicInteger tokenRequestCount = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile LatencyProfile latency = LatencyProfile.none();
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private volatile int defaultPageSize = 25;
+    private volatile int maxPageSize = Integer.MAX_VALUE;
+    private volatile Duration tokenExpiry = Duration.ofMinutes(5);
+    private volatile boolean updatedSinceSupported = true;
+    private volatile boolean returnRepresentation;
+    private volatile int faultStatus;
+    private volatile boolean gzipResponses;
+    private volatile boolean binaryFormats;
+
+    private StubBeerServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public static StubBeerServer start() throws IOException {
+        StubBeerServer stub = new StubBeerServer();
+        stub.server.start();
+        return stub;
+    }
+
+    public static ObjectMapper objectMapper() {
+        return configure(JsonMapper.builder()).build();
+    }
+
+    /**
+     * Smile mapper configured the same as {@link #objectMapper()}.
+     */
+    public static ObjectMapper smileMapper() {
+        return configure(SmileMapper.builder()).build();
+    }
+
+    /**
+     * CBOR mapper configured the same as {@link #objectMapper()}.
+     */
+    public static ObjectMapper cborMapper() {
+        return configure(CBORMapper.builder()).build();
+    }
+
+    private static <M extends ObjectMapper, B extends MapperBuilder<M, B>> B configure(B builder) {
+        return builder
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * A {@link RestTemplateBuilder} pointing at this server, using the same JSON mapping as the server.
+     * Its HttpClient does not retry {@code 503} responses on its own, the same as the configured
+     * transport, so that injected faults reach the client.
+     */
+    public RestTemplateBuilder restTemplateBuilder() {
+        return new RestTemplateBuilder()
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                        .setRetryStrategy(RestTemplateBuilderConfig.IO_RETRY_STRATEGY)
+                        .build()))
+                .messageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .uriTemplateHandler(new DefaultUriBuilderFactory(getBaseUrl()));
+    }
+
+    public void setResponseDelay(Duration responseDelay) {
+        setLatency(LatencyProfile.fixed(responseDelay));
+    }
+
+    public void setLatency(LatencyProfile latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Fails the given fraction of beer API requests, picked at random, with the given status.
+     */
+    public void setErrorRate(double errorRate, int status) {
+        this.errorStatus = status;
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Page size used when a list request does not ask for one, 25 like the beer service.
+     */
+    public void setDefaultPageSize(int defaultPageSize) {
+        this.defaultPageSize = defaultPageSize;
+    }
+
+    /**
+     * Largest page size served; larger requested sizes are capped, as a server limiting its
+     * payloads would.
+     */
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * When disabled, the {@code updatedSince} filter is ignored and every beer is listed.
+     */
+    public void setUpdatedSinceSupported(boolean updatedSinceSupported) {
+        this.updatedSinceSupported = updatedSinceSupported;
+    }
+
+    public void setTokenExpiry(Duration tokenExpiry) {
+        this.tokenExpiry = tokenExpiry;
+    }
+
+    /**
+     * A client credentials registration with the id the client uses, {@code springauth}, whose
+     * token URI is this server.
+     */
+    public ClientRegistration clientRegistration() {
+        return ClientRegistration.withRegistrationId("springauth")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("messaging-client")
+                .clientSecret("secret")
+                .tokenUri(getBaseUrl() + TOKEN_PATH)
+                .build();
+    }
+
+    /**
+     * When enabled, writes honor {@code Prefer: return=representation} and return the stored beer
+     * in the response body. Disabled by default, matching the beer service.
+     */
+    public void setReturnRepresentation(boolean returnRepresentation) {
+        this.returnRepresentation = returnRepresentation;
+    }
+
+    /**
+     * Fails the next {@code count} requests with the given status.
+     */
+    public void failNextRequests(int count, int status) {
+        faultStatus = status;
+        pendingFaults.set(count);
+    }
+
+    public void setGzipResponses(boolean gzipResponses) {
+        this.gzipResponses = gzipResponses;
+    }
+
+    /**
+     * When enabled, responses are written as Smile or CBOR to clients accepting them. Disabled by
+     * default, like the beer service, which only speaks JSON.
+     */
+    public void setBinaryFormats(boolean binaryFormats) {
+        this.binaryFormats = binaryFormats;
+    }
+
+    /**
+     * Response body bytes written so far, as sent over the wire.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Number of beer API requests received; token requests are counted separately.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getTokenRequestCount() {
+        return tokenRequestCount.get();
+    }
+
+    /**
+     * Number of distinct client connections seen, identified by their remote port.
+     */
+    public int getConnectionCount() {
+        return clientPorts.size();
+    }
+
+    public List<UUID> addBeers(int count) {
+        return addBeers(beers, count);
+    }
+
+    public static List<UUID> addBeers(Map<UUID, BeerDTO> beers, int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        BeerStyle[] styles = BeerStyle.values();
+
+        for (int i = 0; i < count; i++) {
+            UUID id = UUID.randomUUID();
+            LocalDateTime now = LocalDateTime.now();
+            beers.put(id, BeerDTO.builder()
+                    .id(id)
+                    .version(1)
+                    .beerName("Beer " + i)
+                    .beerStyle(styles[i % styles.length])
+                    .upc(String.valueOf(100000 + i))
+                    .quantityOnHand(i % 200)
+                    .price(new BigDecimal("9.99"))
+                    .createdDate(now)
+                    .updateDate(now)
+                    .build());
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    public BeerDTO getBeer(UUID beerId) {
+        return beers.get(beerId);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+
+        if (path.equals(TOKEN_PATH)) {
+            issueToken(exchange);
+            return;
+        }
+
+        requestCount.incrementAndGet();
+
+        try {
+            Duration delay = latency.next();
+            if (!delay.isZero()) {
+                Thread.sleep(delay);
+            }
+
+            if (pendingFaults.getAndUpdate(faults -> Math.max(0, faults - 1)) > 0) {
+                exchange.sendResponseHeaders(faultStatus, -1);
+                return;
+            }
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(errorStatus, -1);
+                return;
+            }
+
+            if (path.equals(BEER_PATH)) {
+                switch (method) {
+                    case "GET" -> listBeers(exchange);
+                    case "POST" -> createBeer(exchange);
+                    default -> exchange.sendResponseHeaders(405, -1);
+                }
+            } else if (path.startsWith(BEER_PATH + "/")) {
+                UUID beerId = UUID.fromString(path.substring(BEER_PATH.length() + 1));
+                switch (method) {
+                    case "GET" -> getBeer(exchange, beerId);
+                    case "PUT" -> updateBeer(exchange, beerId);
+                    case "DELETE" -> exchange.sendResponseHeaders(beers.remove(beerId) != null ? 204 : 404, -1);
+                    default -> exchange.sendResponseHeaders(405, -1);
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            exchange.sendResponseHeaders(400, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void listBeers(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParams(exchange);
+        int pageNumber = Integer.parseInt(params.getOrDefault("pageNumber", "1"));
+        int pageSize = params.containsKey("pageSize") ? Integer.parseInt(params.get("pageSize")) : defaultPageSize;
+        pageSize = Math.min(pageSize, maxPageSize);
+        String beerName = params.get("beerName");
+        String beerStyle = params.get("beerStyle");
+        LocalDateTime updatedSince = updatedSinceSupported && params.containsKey("updatedSince")
+                ? LocalDateTime.parse(params.get("updatedSince")) : null;
+
+        List<BeerDTO> matching = beers.values().stream()
+                .filter(beer -> beerName == null || beer.getBeerName().toLowerCase().contains(beerName.toLowerCase()))
+                .filter(beer -> beerStyle == null || beer.getBeerStyle().name().equals(beerStyle))
+                .filter(beer -> updatedSince == null || !beer.getUpdateDate().isBefore(updatedSince))
+                .toList();
+
+        int from = Math.min((pageNumber - 1) * pageSize, matching.size());
+        int to = Math.min(from + pageSize, matching.size());
+        int totalPages = (matching.size() + pageSize - 1) / pageSize;
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", matching.subList(from, to));
+        page.put("number", pageNumber - 1);
+        page.put("size", pageSize);
+        page.put("totalElements", matching.size());
+        page.put("totalPages", totalPages);
+        page.put("first", pageNumber == 1);
+        page.put("last", pageNumber >= totalPages);
+        page.put("numberOfElements", to - from);
+
+        sendEntity(exchange, 200, page);
+    }
+
+    private void getBeer(HttpExchange exchange, UUID beerId) throws IOException {
+        BeerDTO beer = beers.get(beerId);
+
+        if (beer == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        String eTag = "\"" + beer.getVersion() + "\"";
+        exchange.getResponseHeaders().add("ETag", eTag);
+
+        if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+        } else {
+            sendEntity(exchange, 200, beer);
+        }
+    }
+
+    private void createBeer(HttpExchange exchange) throws IOException {
+        BeerDTO beer = readBeer(exchange);
+        if (beer == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        beer.setId(UUID.randomUUID());
+        beer.setVersion(1);
+        beer.setCreatedDate(now);
+        beer.setUpdateDate(now);
+        beers.put(beer.getId(), beer);
+
+        exchange.getResponseHeaders().add("Location", BEER_PATH + "/" + beer.getId());
+        exchange.getResponseHeaders().add("ETag", "\"" + beer.getVersion() + "\"");
+        if (wantsRepresentation(exchange)) {
+            sendEntity(exchange, 201, beer);
+        } else {
+            exchange.sendResponseHeaders(201, -1);
+        }
+    }
+
+    /**
+     * Request bodies are only accepted as JSON, whatever formats the server is willing to send.
+     */
+    private BeerDTO readBeer(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.startsWith("application/json")) {
+            exchange.sendResponseHeaders(415, -1);
+            return null;
+        }
+        return objectMapper.readValue(exchange.getRequestBody(), BeerDTO.class);
+    }
+
+    private void updateBeer(HttpExchange exchange, UUID beerId) throws IOException {
+        BeerDTO existing = beers.get(beerId);
+
+        if (existing == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        BeerDTO beer = readBeer(exchange);
+        if (beer == null) {
+            return;
+        }
+        beer.setId(beerId);
+        beer.setVersion(existing.getVersion() + 1);
+        beer.setCreatedDate(existing.getCreatedDate());
+        beer.setUpdateDate(LocalDateTime.now());
+        beers.put(beerId, beer);
+
+        exchange.getResponseHeaders().add("ETag", "\"" + beer.getVersion() + "\"");
+        if (wantsRepresentation(exchange)) {
+            sendEntity(exchange, 200, beer);
+        } else {
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    private void issueToken(HttpExchange exchange) throws IOException {
+        int token = tokenRequestCount.incrementAndGet();
+
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                    "access_token", "stub-token-" + token,
+                    "token_type", "Bearer",
+                    "expires_in", tokenExpiry.toSeconds()));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private boolean wantsRepresentation(HttpExchange exchange) {
+        String prefer = exchange.getRequestHeaders().getFirst("Prefer");
+        return returnRepresentation && prefer != null && prefer.contains("return=representation");
+    }
+
+    /**
+     * Writes the body as JSON, or as Smile or CBOR when binary formats are enabled and accepted,
+     * gzip compressed when compression is enabled and accepted.
+     */
+    private void sendEntity(HttpExchange exchange, int status, Object body) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        ObjectMapper mapper = objectMapper;
+        String contentType = "application/json";
+
+        if (binaryFormats && accept != null) {
+            if (accept.contains(SMILE_CONTENT_TYPE)) {
+                mapper = smileMapper;
+                contentType = SMILE_CONTENT_TYPE;
+            } else if (accept.contains(CBOR_CONTENT_TYPE)) {
+                mapper = cborMapper;
+                contentType = CBOR_CONTENT_TYPE;
+            }
+        }
+
+        byte[] bytes = mapper.writeValueAsBytes(body);
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (gzipResponses && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+
+        bytesSent.addAndGet(bytes.length);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+
+        if (query == null) {
+            return params;
+        }
+
+        for (String pair : query.split("&")) {
+            int idx = pair.indexOf('=');
+            if (idx > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, idx), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(idx + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}